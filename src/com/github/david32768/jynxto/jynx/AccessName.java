@@ -21,7 +21,7 @@ import java.util.Optional;
 
 import com.github.david32768.jynxfree.jvm.AccessFlag;
 import com.github.david32768.jynxfree.jvm.Context;
-import com.github.david32768.jynxfree.jynx.Global;
+import com.github.david32768.jynxfree.jvm.JvmVersion;
 import com.github.david32768.jynxfree.jynx.NameDesc;
 
 public record AccessName(EnumSet<AccessFlag> flags, Optional<? extends CharSequence> optionalName) {
@@ -44,7 +44,7 @@ public record AccessName(EnumSet<AccessFlag> flags, Optional<? extends CharSeque
         return optionalName.orElseThrow();
     }
     
-    public static AccessName ofClass(ClassModel cm) {
+    public static AccessName ofClass(ClassModel cm, JvmVersion jvmVersion) {
         String name = cm.thisClass().asInternalName();
         Optional<CharSequence> optname;
         if (cm.isModuleInfo()) {
@@ -53,56 +53,57 @@ public record AccessName(EnumSet<AccessFlag> flags, Optional<? extends CharSeque
         } else {
             optname = Optional.of(name);
         }
-        var flags = flagsInContext(cm, cm.flags().flagsMask(), Context.CLASS);
+        var flags = flagsInContext(cm, cm.flags().flagsMask(), Context.CLASS, jvmVersion);
         return new AccessName(flags, optname);
     }
 
-    public static AccessName ofField(FieldModel fm) {
-        var flags = flagsInContext(fm, fm.flags().flagsMask(), Context.FIELD);
+    public static AccessName ofField(FieldModel fm, JvmVersion jvmVersion) {
+        var flags = flagsInContext(fm, fm.flags().flagsMask(), Context.FIELD, jvmVersion);
         return new AccessName(flags, fm.fieldName());
     }
 
-    public static AccessName ofInner(InnerClassInfo inner) {
-        var flags = flagsInContext(inner, inner.flagsMask(), Context.INNER_CLASS);
+    public static AccessName ofInner(InnerClassInfo inner, JvmVersion jvmVersion) {
+        var flags = flagsInContext(inner, inner.flagsMask(), Context.INNER_CLASS, jvmVersion);
         return new AccessName(flags, inner.innerClass().asInternalName());
     }
 
-    public static AccessName ofParameter(MethodParameterInfo parm) {
-        var flags = flagsInContext(parm, parm.flagsMask(), Context.PARAMETER);
+    public static AccessName ofParameter(MethodParameterInfo parm, JvmVersion jvmVersion) {
+        var flags = flagsInContext(parm, parm.flagsMask(), Context.PARAMETER, jvmVersion);
         return new AccessName(flags, parm.name());
     }
 
-    public static AccessName ofMethod(MethodModel mm) {
+    public static AccessName ofMethod(MethodModel mm, JvmVersion jvmVersion) {
         Context context = NameDesc.INIT_NAME.isValid(mm.methodName().stringValue())?
                 Context.INIT_METHOD
                 : Context.METHOD;
-        var flags = flagsInContext(mm, mm.flags().flagsMask(), context);
+        var flags = flagsInContext(mm, mm.flags().flagsMask(), context, jvmVersion);
         String namedesc = mm.methodName().stringValue() + mm.methodType().stringValue();
         return new AccessName(flags, namedesc);
     }
 
-    public static AccessName ofModule(ModuleAttribute module) {
-        var flags = flagsInContext(module, module.moduleFlagsMask(),Context.MODULE);
+    public static AccessName ofModule(ModuleAttribute module, JvmVersion jvmVersion) {
+        var flags = flagsInContext(module, module.moduleFlagsMask(),Context.MODULE, jvmVersion);
         return new AccessName(flags, module.moduleName().name());
     }
 
-    public static AccessName ofExport(ModuleExportInfo exported) {
-        var flags = flagsInContext(exported, exported.exportsFlagsMask(), Context.EXPORT);
+    public static AccessName ofExport(ModuleExportInfo exported, JvmVersion jvmVersion) {
+        var flags = flagsInContext(exported, exported.exportsFlagsMask(), Context.EXPORT, jvmVersion);
         return new AccessName(flags, exported.exportedPackage().name());
     }
 
-    public static AccessName ofOpen(ModuleOpenInfo opened) {
-        var flags = flagsInContext(opened, opened.opensFlagsMask(), Context.OPEN);
+    public static AccessName ofOpen(ModuleOpenInfo opened, JvmVersion jvmVersion) {
+        var flags = flagsInContext(opened, opened.opensFlagsMask(), Context.OPEN, jvmVersion);
         return new AccessName(flags, opened.openedPackage().name());
     }
 
-    public static AccessName ofRequire(ModuleRequireInfo required) {
-        var flags = flagsInContext(required, required.requiresFlagsMask(), Context.REQUIRE);
+    public static AccessName ofRequire(ModuleRequireInfo required, JvmVersion jvmVersion) {
+        var flags = flagsInContext(required, required.requiresFlagsMask(), Context.REQUIRE, jvmVersion);
         return new AccessName(flags, required.requires().name());
     }
 
-    private static EnumSet<AccessFlag> flagsInContext(Object flagged, int flagsMask, Context context) {
-        var flags = AccessFlag.getEnumSet(flagsMask, context, Global.JVM_VERSION());
+    private static EnumSet<AccessFlag> flagsInContext(Object flagged, int flagsMask, Context context,
+            JvmVersion jvmVersion) {
+        var flags = AccessFlag.getEnumSet(flagsMask, context, jvmVersion);
         if (flagged instanceof AttributedElement attributed) {
             for (var attribute: attributed.attributes()) {
                 switch(attribute) {
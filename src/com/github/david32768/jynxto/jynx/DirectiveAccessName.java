@@ -27,7 +27,7 @@ public record DirectiveAccessName(Directive dir,
     }
     
     public static DirectiveAccessName of(InnerClassInfo inner, JvmVersion jvmVersion) {
-        var accessName = AccessName.ofInner(inner);
+        var accessName = AccessName.ofInner(inner, jvmVersion);
         var flags = accessName.flags();
         ClassType classtype = ClassType.from(flags, jvmVersion);
         flags.removeAll(classtype.getMustHave4Inner(jvmVersion));
@@ -37,7 +37,7 @@ public record DirectiveAccessName(Directive dir,
     private static final String PACKAGE_INFO = "/package-info";
     
     public static DirectiveAccessName of(ClassModel cm, JvmVersion jvmVersion) {
-        var accessName = AccessName.ofClass(cm);
+        var accessName = AccessName.ofClass(cm, jvmVersion);
         var flags = accessName.flags();
         var name = accessName.optionalName().orElse(null);
         ClassType classtype = ClassType.from(flags, jvmVersion);
@@ -22,6 +22,16 @@ public enum Message implements JynxMessage {
     M615(BLANK,"%s handler %s - %s"),
     M616(BLANK,"%s attribute is present but empty"),
     M621(INFO,"%s not actioned as exception occured: %s"),
+    M622(INFO,"%d classes written to %s; %d failed"),
+    M623(WARNING,"disassembly of %s failed"),
+    M624(WARNING,"disassembly cache %s not used: %s"),
+    M625(INFO,"constant pool render cache: %d hits, %d misses"),
+    M626(BLANK,"code length %d max stack %d max locals %d handlers %d"),
+    M627(BLANK,"instructions %s"),
+    M628(WARNING,"%s is not a valid pattern and is ignored: %s"),
+    M629(BLANK,"%d fields and %d methods not selected"),
+    M630(WARNING,"class hierarchy file %s not used: %s"),
+    M631(ERROR,"%s is not in output directory %s and is ignored"),
 
     M911(ERROR,"indent depth would be below lower limit %d"),
     ;
@@ -8,14 +8,11 @@ import java.lang.classfile.Label;
 import java.lang.classfile.TypeAnnotation;
 import java.lang.classfile.TypeAnnotation.TargetInfo;
 import java.lang.classfile.TypeAnnotation.TypePathComponent;
+import java.util.function.Function;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
-import static com.github.david32768.jynxfree.jynx.Global.OPTION;
-import static com.github.david32768.jynxfree.jynx.GlobalOption.SKIP_ANNOTATIONS;
-
 import com.github.david32768.jynxfree.jvm.TypeRef;
 import com.github.david32768.jynxfree.jynx.Directive;
 import com.github.david32768.jynxfree.jynx.ReservedWord;
@@ -28,7 +25,7 @@ public class AnnotationPrinter {
 
     AnnotationPrinter(JynxPrinter ptr) {
         this.ptr = ptr.copy();
-        this.omit = OPTION(SKIP_ANNOTATIONS);
+        this.omit = ptr.context().skipAnnotations();
     }
     
     void processRuntimeAnnotation(boolean visible, Annotation annotation) {
@@ -86,7 +83,7 @@ public class AnnotationPrinter {
         ptr.print(Directive.end_annotation).nl();
     }
     
-    void processLocalVarAnnotation(boolean visible, TypeAnnotation typeAnnotation, Map<Label,String> labelNames) {
+    void processLocalVarAnnotation(boolean visible, TypeAnnotation typeAnnotation, Function<Label,String> labelNames) {
         if (omit) {
             return;
         }
@@ -94,8 +91,8 @@ public class AnnotationPrinter {
         ptr.print(ReservedWord.dot_array).nl().incrDepth().incrDepth();
         var target = (TypeAnnotation.LocalVarTarget)typeAnnotation.targetInfo();
         for (var info : target.table()) {
-            var start = labelNames.get(info.startLabel());
-            var end = labelNames.get(info.endLabel());
+            var start = labelNames.apply(info.startLabel());
+            var end = labelNames.apply(info.endLabel());
             Objects.requireNonNull(start);
             Objects.requireNonNull(end);
             ptr.print(info.index(), start, end).nl();
@@ -0,0 +1,162 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// non-blocking disassembly for embedding;
+// classes are read and parsed on the executor but printing is serialised with all other disassembly
+// in this JVM as it uses Global state; published lines are submitted as they are printed through
+// the subscriber's bounded buffer so a class is not held in memory but a slow subscriber
+// delays other disassembly;
+// diagnostics are the messages printed as comments and the stack map and failure messages from ToJynx,
+// other messages logged by JynxFree (Global.LOG) are not included
+public class AsyncToJynx {
+
+    public record Result(String className, boolean success, String jx, List<JynxDiagnostic> diagnostics) {
+
+        public Result {
+            diagnostics = List.copyOf(diagnostics);
+        }
+    }
+
+    // published lines are followed by this if disassembly fails
+    public static class DisassemblyException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<JynxDiagnostic> diagnostics;
+
+        DisassemblyException(String className, List<JynxDiagnostic> diagnostics) {
+            super("disassembly of " + className + " failed");
+            this.diagnostics = List.copyOf(diagnostics);
+        }
+
+        public List<JynxDiagnostic> diagnostics() {
+            return diagnostics;
+        }
+    }
+
+    private final Executor executor;
+    private final Supplier<ToJynxContext> context;
+
+    private AsyncToJynx(Executor executor, Supplier<ToJynxContext> context) {
+        this.executor = executor;
+        this.context = context;
+    }
+
+    public static AsyncToJynx of() {
+        return of(ForkJoinPool.commonPool());
+    }
+
+    // executor is also used to deliver published lines so must not be single threaded;
+    // options are read from Global when each class is submitted
+    public static AsyncToJynx of(Executor executor) {
+        return new AsyncToJynx(executor, ToJynxContext::ofGlobal);
+    }
+
+    // diagnostics are also sent to the context's consumer
+    public static AsyncToJynx of(Executor executor, ToJynxContext context) {
+        return new AsyncToJynx(executor, () -> context);
+    }
+
+    // the context is got on the calling thread so Global is not read by the executor
+    public CompletableFuture<Result> toJynx(byte[] bytes) {
+        var current = context.get();
+        return CompletableFuture.supplyAsync(() -> disassemble(bytes, current), executor);
+    }
+
+    public CompletableFuture<Result> toJynx(ByteBuffer buffer) {
+        return toJynx(bytesOf(buffer));
+    }
+
+    public CompletableFuture<Result> toJynx(Path path) {
+        var current = context.get();
+        return CompletableFuture.supplyAsync(() -> disassemble(readAllBytes(path), current), executor);
+    }
+
+    // each subscriber gets its own disassembly, published a line at a time;
+    // publishing waits while the subscriber's buffer is full
+    public Flow.Publisher<String> publish(byte[] bytes) {
+        return publish(() -> bytes);
+    }
+
+    public Flow.Publisher<String> publish(ByteBuffer buffer) {
+        byte[] bytes = bytesOf(buffer);
+        return publish(() -> bytes);
+    }
+
+    public Flow.Publisher<String> publish(Path path) {
+        return publish(() -> readAllBytes(path));
+    }
+
+    private Flow.Publisher<String> publish(Callable<byte[]> input) {
+        return subscriber -> {
+            var publisher = new SubmissionPublisher<String>(executor, Flow.defaultBufferSize());
+            var current = context.get();
+            publisher.subscribe(subscriber);
+            executor.execute(() -> publishLines(publisher, input, current));
+        };
+    }
+
+    private static void publishLines(SubmissionPublisher<String> publisher, Callable<byte[]> input,
+            ToJynxContext context) {
+        try {
+            var parsed = ToJynx.parse(input.call(), context);
+            List<JynxDiagnostic> diagnostics = new ArrayList<>();
+            // submit waits while the subscriber's buffer is full
+            boolean success = ToJynx.toJynx(parsed, line -> publisher.submit(line.toString()),
+                    collector(diagnostics, context));
+            if (success) {
+                publisher.close();
+            } else {
+                String className = parsed.cm().thisClass().asInternalName();
+                publisher.closeExceptionally(new DisassemblyException(className, diagnostics));
+            }
+        } catch (Throwable ex) {
+            // includes an Error (e.g. AssertionError) so the subscriber is always completed
+            publisher.closeExceptionally(ex);
+        }
+    }
+
+    private static Consumer<JynxDiagnostic> collector(List<JynxDiagnostic> diagnostics, ToJynxContext context) {
+        Consumer<JynxDiagnostic> collector = diagnostics::add;
+        return collector.andThen(context.diagnostics());
+    }
+
+    private static Result disassemble(byte[] bytes, ToJynxContext context) {
+        var parsed = ToJynx.parse(bytes, context);
+        List<JynxDiagnostic> diagnostics = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean success = ToJynx.toJynx(parsed, sb::append, collector(diagnostics, context));
+        String className = parsed.cm().thisClass().asInternalName();
+        return new Result(className, success, sb.toString(), diagnostics);
+    }
+
+    private static byte[] bytesOf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static byte[] readAllBytes(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
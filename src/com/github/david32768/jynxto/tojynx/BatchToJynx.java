@@ -0,0 +1,255 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+import static com.github.david32768.jynxto.my.Message.M622;
+import static com.github.david32768.jynxto.my.Message.M623;
+import static com.github.david32768.jynxto.my.Message.M631;
+
+public class BatchToJynx {
+
+    @FunctionalInterface
+    private interface BytesReader {
+        byte[] read() throws IOException;
+    }
+
+    private static record ClassSource(String relative, BytesReader reader) {}
+
+    // parsed is null if the output was found in the cache;
+    // messages are logged when the class is printed
+    private static record PreparedClass(String key, String cached, ToJynx.ParsedClass parsed,
+            List<DeferredLog> messages) {}
+
+    private static record PendingClass(String relative, ForkJoinTask<PreparedClass> task) {}
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String JX_SUFFIX = ".jx";
+    private static final String JMOD_CLASSES = "classes/";
+    private static final String OUTPUT_SUFFIX = "_jx";
+    private static final int WINDOW_PER_THREAD = 4;
+
+    private final Path input;
+    private final Path outputRoot;
+    private final int parallelism;
+    private final Optional<JynxCache> cache;
+
+    private int successCount;
+    private int failCount;
+
+    private BatchToJynx(Path input, Path outputRoot, int parallelism) {
+        this.input = input;
+        this.outputRoot = outputRoot;
+        this.parallelism = Math.max(1, parallelism);
+        this.cache = JynxCache.ofProperty();
+        this.successCount = 0;
+        this.failCount = 0;
+    }
+
+    public static boolean isBatch(String fname) {
+        Path path = Path.of(fname);
+        return Files.isDirectory(path) || isJar(path) || isJmod(path);
+    }
+
+    public static BatchToJynx of(String fname) {
+        return of(fname, ToJynx.parallelism());
+    }
+
+    public static BatchToJynx of(String fname, int parallelism) {
+        Path input = Path.of(fname);
+        String name = stripSuffix(input.getFileName().toString());
+        return new BatchToJynx(input, Path.of(name + OUTPUT_SUFFIX), parallelism);
+    }
+
+    public boolean run(PrintWriter pw) throws IOException {
+        if (Files.isDirectory(input)) {
+            processDirectory();
+        } else {
+            processZip(isJmod(input)? JMOD_CLASSES: "");
+        }
+        // "%d classes written to %s; %d failed"
+        LOG(M622, successCount, outputRoot, failCount);
+        pw.flush();
+        return failCount == 0;
+    }
+
+    private void processDirectory() throws IOException {
+        List<Path> classes;
+        try (Stream<Path> paths = Files.walk(input)) {
+            classes = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(CLASS_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        var sources = classes.stream()
+                .map(path -> new ClassSource(input.relativize(path).toString(),
+                        () -> Files.readAllBytes(path)))
+                .toList();
+        processAll(sources);
+    }
+
+    private void processZip(String prefix) throws IOException {
+        try (ZipFile zip = new ZipFile(input.toFile())) {
+            var sources = zip.stream()
+                    .filter(entry -> !entry.isDirectory())
+                    .filter(entry -> entry.getName().startsWith(prefix))
+                    .filter(entry -> entry.getName().endsWith(CLASS_SUFFIX))
+                    .map(entry -> new ClassSource(entry.getName().substring(prefix.length()),
+                            () -> readEntry(zip, entry)))
+                    .toList();
+            processAll(sources);
+        }
+    }
+
+    // classes are read and parsed (including any stack map generation) concurrently
+    // but are printed one at a time in input order as printing uses Global state;
+    // pool threads do not read or log to Global
+    private void processAll(List<ClassSource> sources) throws IOException {
+        ToJynxContext context = ToJynxContext.ofGlobal();
+        // input classes are only read for the class hierarchy if needed for stack map generation
+        // and only for this input
+        Map<String, ClassSource> byName = sources.stream()
+                .collect(Collectors.toMap(source -> internalNameOf(source.relative()),
+                        Function.identity(), (first, _) -> first));
+        var inputs = ClassHierarchyCache.Inputs.of(name -> {
+            var source = byName.get(name);
+            return source == null? null: source.reader().read();
+        });
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Deque<PendingClass> window = new ArrayDeque<>();
+            int limit = parallelism * WINDOW_PER_THREAD;
+            for (var source : sources) {
+                var task = pool.submit(() -> prepare(source, context, inputs));
+                window.addLast(new PendingClass(source.relative(), task));
+                if (window.size() >= limit) {
+                    printClass(window.removeFirst());
+                }
+            }
+            while (!window.isEmpty()) {
+                printClass(window.removeFirst());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String internalNameOf(String relative) {
+        String name = relative.substring(0, relative.length() - CLASS_SUFFIX.length());
+        return name.replace(File.separatorChar, '/');
+    }
+
+    private static byte[] readEntry(ZipFile zip, ZipEntry entry) throws IOException {
+        try (var is = zip.getInputStream(entry)) {
+            return ClassBytes.read(is, entry.getSize());
+        }
+    }
+
+    private PreparedClass prepare(ClassSource source, ToJynxContext context, ClassHierarchyCache.Inputs inputs) {
+        byte[] bytes;
+        try {
+            bytes = source.reader().read();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        List<DeferredLog> messages = new ArrayList<>();
+        if (cache.isPresent()) {
+            String key = cache.get().keyOf(bytes);
+            var cached = cache.get().get(key, inputs, messages::add);
+            if (cached.isPresent()) {
+                return new PreparedClass(key, cached.get(), null, messages);
+            }
+            return new PreparedClass(key, null, ToJynx.parse(bytes, context, inputs), messages);
+        }
+        return new PreparedClass(null, null, ToJynx.parse(bytes, context, inputs), messages);
+    }
+
+    private static boolean print(PreparedClass prepared, Optional<JynxCache> cache, PrintWriter pw) {
+        if (prepared.parsed() == null) {
+            pw.print(prepared.cached());
+            return true;
+        }
+        if (cache.isPresent()) {
+            return cache.get().toJynx(prepared.key(), prepared.parsed(), pw);
+        }
+        return ToJynx.toJynx(prepared.parsed(), pw);
+    }
+
+    private void printClass(PendingClass pending) throws IOException {
+        String relative = pending.relative();
+        String jxname = relative.substring(0, relative.length() - CLASS_SUFFIX.length()) + JX_SUFFIX;
+        Path root = outputRoot.normalize();
+        Path output = root.resolve(jxname).normalize();
+        if (!output.startsWith(root) || output.equals(root)) {
+            // "%s is not in output directory %s and is ignored"
+            LOG(M631, relative, outputRoot);
+            pending.task().cancel(true);
+            ++failCount;
+            return;
+        }
+        Path parent = output.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean success;
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(output))) {
+            var prepared = pending.task().join();
+            prepared.messages().forEach(DeferredLog::log);
+            success = print(prepared, cache, pw);
+            // PrintWriter does not throw IOException; checkError also flushes
+            if (pw.checkError()) {
+                LOG(new IOException("error writing " + output));
+                success = false;
+            }
+        } catch (RuntimeException | AssertionError ex) {
+            // a failed assertion in one class does not stop the batch
+            LOG(ex);
+            success = false;
+        }
+        if (!success) {
+            // partial output is not left behind
+            Files.deleteIfExists(output);
+        }
+        if (success) {
+            ++successCount;
+        } else {
+            // "disassembly of %s failed"
+            LOG(M623, relative);
+            ++failCount;
+        }
+    }
+
+    private static boolean isJar(Path path) {
+        String name = path.toString();
+        return Files.isRegularFile(path) && (name.endsWith(".jar") || name.endsWith(".zip"));
+    }
+
+    private static boolean isJmod(Path path) {
+        return Files.isRegularFile(path) && path.toString().endsWith(".jmod");
+    }
+
+    private static String stripSuffix(String name) {
+        int index = name.lastIndexOf('.');
+        return index > 0? name.substring(0, index): name;
+    }
+
+}
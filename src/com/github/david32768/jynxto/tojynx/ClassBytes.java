@@ -0,0 +1,50 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class ClassBytes {
+
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    // one growable buffer per reading thread for input of unknown size
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    private ClassBytes() {}
+
+    // reads exactly size bytes if size is known (>= 0) else reads to end of stream
+    public static byte[] read(InputStream is, long size) throws IOException {
+        if (size < 0) {
+            return readPooled(is);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("class too large: " + size);
+        }
+        byte[] bytes = new byte[(int)size];
+        int count = is.readNBytes(bytes, 0, bytes.length);
+        if (count != bytes.length) {
+            throw new EOFException(String.format("expected %d bytes but read %d", bytes.length, count));
+        }
+        return bytes;
+    }
+
+    private static byte[] readPooled(InputStream is) throws IOException {
+        byte[] buffer = BUFFER.get();
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                BUFFER.set(buffer);
+            }
+            int count = is.read(buffer, length, buffer.length - length);
+            if (count < 0) {
+                break;
+            }
+            length += count;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+}
@@ -26,6 +26,8 @@ public class ClassHeaderPrinter {
     protected final JynxPrinter ptr;
     private final JvmVersion jvmVersion;
     private final List<RecordComponentInfo> components;
+    
+    private AnnotationPrinter annotationPrinter; // created when first needed
 
     ClassHeaderPrinter(JynxPrinter ptr, JvmVersion jvmversion) {
         this.ptr = ptr.copy();
@@ -37,6 +39,13 @@ public class ClassHeaderPrinter {
         return List.copyOf(components);
     }
 
+    private AnnotationPrinter annotationPrinter() {
+        if (annotationPrinter == null) {
+            annotationPrinter = new AnnotationPrinter(ptr);
+        }
+        return annotationPrinter;
+    }
+
     void process(ClassModel cm) {
         ptr.incrDepth();
         processHeader(cm);
@@ -98,25 +107,25 @@ public class ClassHeaderPrinter {
                 ptr.print(dir_debug).printQuoted(new String(attr.contents())).nl();
             }
             case RuntimeInvisibleAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeAnnotation(false, annotation);
                 }
             }
             case RuntimeVisibleAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeAnnotation(true, annotation);
                 }
             }
             case RuntimeInvisibleTypeAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeTypeAnnotation(false, (TypeAnnotation)annotation);
                 }
             }
             case RuntimeVisibleTypeAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeTypeAnnotation(true, (TypeAnnotation)annotation);
                 }
@@ -0,0 +1,315 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.IOException;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassHierarchyResolver;
+import java.lang.classfile.ClassHierarchyResolver.ClassHierarchyInfo;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.constantpool.ClassEntry;
+import java.lang.constant.ClassDesc;
+import java.lang.module.ModuleFinder;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+import static com.github.david32768.jynxto.my.Message.M630;
+
+// class hierarchy used for stack map generation;
+// a class is resolved from the class being disassembled, then the current input (e.g. a batch, read only
+// when needed) and then the runtime image (not the class or module path of this program)
+// so frames only depend on the input and the runtime version;
+// runtime image entries are shared by all threads and may be saved to a file for the same runtime version
+public class ClassHierarchyCache {
+
+    // returns null if class is not present
+    @FunctionalInterface
+    interface ClassLookup {
+        byte[] bytesOf(String internalName) throws IOException;
+    }
+
+    private static final String HIERARCHY_PROPERTY = "jynxto.hierarchy";
+    private static final String FILE_HEADER = "# jynxto class hierarchy " + Runtime.version();
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String NO_SUPER = "-";
+    private static final String ABSENT_KIND = "?";
+    private static final String CLASS_KIND = "C";
+    private static final String INTERFACE_KIND = "I";
+
+    // superName is null for java/lang/Object
+    private record Entry(boolean isInterface, String superName) {
+
+        ClassHierarchyInfo info() {
+            if (isInterface) {
+                return ClassHierarchyInfo.ofInterface();
+            }
+            return ClassHierarchyInfo.ofClass(superName == null? null: ClassDesc.ofInternalName(superName));
+        }
+
+        static String line(String name, Entry entry) {
+            if (entry == null) {
+                return ABSENT_KIND + " " + name;
+            }
+            if (entry.isInterface) {
+                return INTERFACE_KIND + " " + name;
+            }
+            return CLASS_KIND + " " + name + " " + (entry.superName == null? NO_SUPER: entry.superName);
+        }
+
+        static Entry of(ClassModel cm) {
+            boolean isInterface = (cm.flags().flagsMask() & ClassFile.ACC_INTERFACE) != 0;
+            String superName = cm.superclass()
+                    .map(ClassEntry::asInternalName)
+                    .orElse(null);
+            return new Entry(isInterface, superName);
+        }
+
+        static Entry of(byte[] bytes) {
+            try {
+                return of(ClassFile.of().parse(bytes));
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+    }
+
+    // classes of one input; entries are discarded with the input
+    static final class Inputs {
+
+        static final Inputs NONE = new Inputs(_ -> null);
+
+        private final ClassLookup lookup;
+        private final Map<String, Optional<Entry>> entries;
+
+        private Inputs(ClassLookup lookup) {
+            this.lookup = lookup;
+            this.entries = new ConcurrentHashMap<>();
+        }
+
+        static Inputs of(ClassLookup lookup) {
+            return new Inputs(lookup);
+        }
+
+        private Optional<Entry> entryOf(String name) {
+            var entry = entries.get(name);
+            if (entry == null) {
+                byte[] bytes;
+                try {
+                    bytes = lookup.bytesOf(name);
+                } catch (IOException ex) {
+                    bytes = null;
+                }
+                entry = Optional.ofNullable(bytes == null? null: Entry.of(bytes));
+                var previous = entries.putIfAbsent(name, entry);
+                if (previous != null) {
+                    entry = previous;
+                }
+            }
+            return entry;
+        }
+    }
+
+    // resolver for one class; records what was resolved for other classes
+    final class Resolver implements ClassHierarchyResolver {
+
+        private final String self;
+        private final Entry selfEntry;
+        private final Inputs inputs;
+        private final Map<String, String> used;
+
+        private Resolver(ClassModel cm, Inputs inputs) {
+            this.self = cm.thisClass().asInternalName();
+            this.selfEntry = Entry.of(cm);
+            this.inputs = inputs;
+            this.used = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public ClassHierarchyInfo getClassInfo(ClassDesc classDesc) {
+            String desc = classDesc.descriptorString();
+            String name = desc.substring(1, desc.length() - 1);
+            if (name.equals(self)) {
+                return selfEntry.info();
+            }
+            Entry entry = resolve(name, inputs);
+            used.putIfAbsent(name, Entry.line(name, entry));
+            return entry == null? null: entry.info();
+        }
+
+        // sorted description of each class resolved apart from this class
+        List<String> used() {
+            return used.values().stream()
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static final class RuntimeImage {
+
+        // null if there is no runtime image
+        private static final FileSystem JRT;
+        private static final Map<String, String> MODULE_OF_PACKAGE;
+
+        static {
+            FileSystem jrt;
+            Map<String, String> modules = new HashMap<>();
+            try {
+                jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+                for (var ref : ModuleFinder.ofSystem().findAll()) {
+                    String module = ref.descriptor().name();
+                    for (String pkg : ref.descriptor().packages()) {
+                        modules.put(pkg.replace('.', '/'), module);
+                    }
+                }
+            } catch (RuntimeException ex) {
+                jrt = null;
+                modules.clear();
+            }
+            JRT = jrt;
+            MODULE_OF_PACKAGE = Map.copyOf(modules);
+        }
+
+        private RuntimeImage() {}
+
+        static byte[] bytesOf(String name) {
+            int index = name.lastIndexOf('/');
+            String module = index < 0? null: MODULE_OF_PACKAGE.get(name.substring(0, index));
+            if (JRT == null || module == null) {
+                return null;
+            }
+            try {
+                return Files.readAllBytes(JRT.getPath("modules", module, name + CLASS_SUFFIX));
+            } catch (IOException | InvalidPathException ex) {
+                return null;
+            }
+        }
+    }
+
+    public static final ClassHierarchyCache SHARED = new ClassHierarchyCache(hierarchyFile());
+
+    private final Path file;
+    // only classes in the runtime image so bounded by its size
+    private final Map<String, Entry> runtime;
+
+    private volatile boolean changed;
+
+    private ClassHierarchyCache(Path file) {
+        this.file = file;
+        this.runtime = new ConcurrentHashMap<>();
+        this.changed = false;
+    }
+
+    private static Path hierarchyFile() {
+        String fname = System.getProperty(HIERARCHY_PROPERTY);
+        if (fname == null || fname.isBlank()) {
+            return null;
+        }
+        return Path.of(fname);
+    }
+
+    Resolver resolver(ClassModel cm, Inputs inputs) {
+        return new Resolver(cm, inputs);
+    }
+
+    // as in Resolver.used() for a class resolved now
+    String describe(String name, Inputs inputs) {
+        return Entry.line(name, resolve(name, inputs));
+    }
+
+    // the current input takes priority over the runtime image
+    private Entry resolve(String name, Inputs inputs) {
+        var input = inputs.entryOf(name);
+        if (input.isPresent()) {
+            return input.get();
+        }
+        Entry entry = runtime.get(name);
+        if (entry == null) {
+            // a class that is not found is not cached
+            byte[] bytes = RuntimeImage.bytesOf(name);
+            entry = bytes == null? null: Entry.of(bytes);
+            if (entry != null && runtime.putIfAbsent(name, entry) == null) {
+                changed = true;
+            }
+        }
+        return entry;
+    }
+
+    // the file is only used if written by the same runtime version; malformed lines are ignored
+    public void load() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file);
+            if (lines.isEmpty() || !lines.getFirst().equals(FILE_HEADER)) {
+                return;
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                String[] parts = line.split(" ");
+                if (parts.length == 2 && parts[0].equals(INTERFACE_KIND)) {
+                    runtime.put(parts[1], new Entry(true, null));
+                } else if (parts.length == 3 && parts[0].equals(CLASS_KIND)) {
+                    String superName = parts[2].equals(NO_SUPER)? null: parts[2];
+                    runtime.put(parts[1], new Entry(false, superName));
+                }
+            }
+        } catch (IOException ex) {
+            // "class hierarchy file %s not used: %s"
+            LOG(M630, file, ex);
+        }
+    }
+
+    // temp does not exist if moved
+    private void deleteTemp(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ex) {
+            // "class hierarchy file %s not used: %s"
+            LOG(M630, file, ex);
+        }
+    }
+
+    public void save() {
+        if (file == null || !changed) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        runtime.forEach((name, entry) -> lines.add(Entry.line(name, entry)));
+        lines.sort(null);
+        lines.addFirst(FILE_HEADER);
+        Path temp = null;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            temp = Files.createTempFile(dir, file.getFileName().toString(), TEMP_SUFFIX);
+            Files.write(temp, lines);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            changed = false;
+        } catch (IOException ex) {
+            // "class hierarchy file %s not used: %s"
+            LOG(M630, file, ex);
+        } finally {
+            deleteTemp(temp);
+        }
+    }
+
+}
@@ -2,32 +2,29 @@ package com.github.david32768.jynxto.tojynx;
 
 import java.lang.classfile.ClassModel;
 
-import static com.github.david32768.jynxfree.jynx.Global.OPTIONS;
+import static com.github.david32768.jynxto.my.Message.M629;
 
 import com.github.david32768.jynxfree.jvm.JvmVersion;
 import com.github.david32768.jynxfree.jynx.Directive;
-import com.github.david32768.jynxfree.jynx.GlobalOption;
-import com.github.david32768.jynxfree.jynx.MainOption;
 
 import com.github.david32768.jynxto.jynx.DirectiveAccessName;
+import com.github.david32768.jynxto.tojynx.DisassemblyMetrics.Phase;
 
 public class ClassPrinter {
     
     private final JynxPrinter ptr;
+    private final ToJynxContext context;
     private final JvmVersion jvmVersion;
 
-    ClassPrinter(JynxPrinter ptr, JvmVersion jvmVersion) {
+    ClassPrinter(JynxPrinter ptr) {
         this.ptr = ptr.copy();
-        this.jvmVersion = jvmVersion;
+        this.context = ptr.context();
+        this.jvmVersion = context.jvmVersion();
     }
     
     void process(ClassModel cm) {
         ptr.print(Directive.dir_version, jvmVersion.asJava());
-        OPTIONS().stream()
-                .filter(GlobalOption::isExternal)
-                .filter(opt -> MainOption.ASSEMBLY.usesOption(opt))
-                .filter(opt -> opt != GlobalOption.SYSIN)
-                .forEach(ptr::print);
+        context.assemblyOptions().forEach(ptr::print);
         ptr.nl();
 
         var dirAccessName = DirectiveAccessName.of(cm,jvmVersion);
@@ -42,24 +39,49 @@ public class ClassPrinter {
     }
     
     private void processClass(ClassModel cm) {
+        var metrics = DisassemblyMetrics.current();
+        metrics.start(Phase.CLASS_HEADER);
         ClassHeaderPrinter chp = new ClassHeaderPrinter(ptr, jvmVersion);
         chp.process(cm);
         for (var component : chp.components()) {
             var cp = new ComponentPrinter(ptr);
             cp.process(component);
         }
-        for (var fm : cm.fields()) {
+        metrics.stop(Phase.CLASS_HEADER);
+        // unselected members are not visited at all
+        var fields = cm.fields().stream()
+                .filter(context.fields()::selects)
+                .toList();
+        var methods = context.methods().selectsAll()?
+                cm.methods():
+                cm.methods().stream()
+                        .filter(context.methods()::selects)
+                        .toList();
+        int omittedFields = cm.fields().size() - fields.size();
+        int omittedMethods = cm.methods().size() - methods.size();
+        if (omittedFields != 0 || omittedMethods != 0) {
+            // "%d fields and %d methods not selected"
+            ptr.nl().comment(M629, omittedFields, omittedMethods);
+        }
+        metrics.start(Phase.FIELDS);
+        for (var fm : fields) {
             var fp = new FieldPrinter(ptr);
             fp.process(fm);
         }
-        for (var mm : cm.methods()) {
+        metrics.stop(Phase.FIELDS);
+        metrics.start(Phase.METHODS);
+        for (var mm : methods) {
             var mp = new MethodPrinter(ptr);
             mp.process(mm);
-        }        
+        }
+        metrics.stop(Phase.METHODS);
     }
-
+    
     private void processModuleInfo(ClassModel cm) {
+        var metrics = DisassemblyMetrics.current();
+        metrics.start(Phase.CLASS_HEADER);
         var modptr = new ModulePrinter(ptr, jvmVersion);
         modptr.process(cm);
+        metrics.stop(Phase.CLASS_HEADER);
     }
 }
@@ -0,0 +1,68 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// sends options and class files to a ServerToJynx and writes the .jx output to stdout
+public class ClientToJynx {
+
+    private static final String OPTION_PREFIX = "--";
+
+    private ClientToJynx() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: ClientToJynx socket-path {options} class-file...");
+            System.exit(1);
+        }
+        StringBuilder options = new StringBuilder();
+        int first = 1;
+        while (first < args.length && args[first].startsWith(OPTION_PREFIX)) {
+            options.append(args[first]).append(' ');
+            ++first;
+        }
+        var address = UnixDomainSocketAddress.of(Path.of(args[0]));
+        boolean success = true;
+        try (var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(address);
+            var dis = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            var dos = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            var pw = new PrintWriter(System.out);
+            if (!options.isEmpty()) {
+                byte[] bytes = options.toString().getBytes(StandardCharsets.UTF_8);
+                dos.writeInt(ServerToJynx.OPTIONS_LENGTH);
+                dos.writeInt(bytes.length);
+                dos.write(bytes);
+            }
+            for (int i = first; i < args.length; ++i) {
+                byte[] bytes = Files.readAllBytes(Path.of(args[i]));
+                dos.writeInt(bytes.length);
+                dos.write(bytes);
+                dos.flush();
+                int length = dis.readInt();
+                if (length == ServerToJynx.FAILURE_LENGTH) {
+                    System.err.println("disassembly of " + args[i] + " failed");
+                    success = false;
+                } else {
+                    pw.print(new String(dis.readNBytes(length), StandardCharsets.UTF_8));
+                    pw.flush();
+                }
+            }
+        }
+        if (!success) {
+            System.exit(1);
+        }
+    }
+
+}
@@ -20,6 +20,7 @@ import java.lang.classfile.PseudoInstruction;
 import java.lang.classfile.TypeAnnotation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.function.Consumer;
 import java.util.HashMap;
@@ -29,7 +30,6 @@ import java.util.Objects;
 import java.util.Optional;
 
 import static com.github.david32768.jynxfree.jynx.Directive.dir_limit;
-import static com.github.david32768.jynxfree.jynx.Global.JVM_VERSION;
 import static com.github.david32768.jynxfree.jynx.Global.LOG;
 import static com.github.david32768.jynxfree.jynx.ReservedWord.res_locals;
 import static com.github.david32768.jynxfree.jynx.ReservedWord.res_stack;
@@ -38,7 +38,6 @@ import static com.github.david32768.jynxto.my.Message.M167;
 import static com.github.david32768.jynxto.my.Message.M192;
 import static com.github.david32768.jynxto.my.Message.M193;
 import static com.github.david32768.jynxto.my.Message.M22;
-import static com.github.david32768.jynxto.my.Message.M608;
 import static com.github.david32768.jynxto.my.Message.M613;
 import static com.github.david32768.jynxto.my.Message.M614;
 import static com.github.david32768.jynxto.my.Message.M615;
@@ -51,86 +50,111 @@ import com.github.david32768.jynxfree.classfile.StackMap;
 import com.github.david32768.jynxfree.jvm.Context;
 import com.github.david32768.jynxfree.jvm.Feature;
 import com.github.david32768.jynxfree.jvm.FrameType;
+import com.github.david32768.jynxfree.jvm.JvmVersion;
 import com.github.david32768.jynxfree.jynx.Directive;
-import com.github.david32768.jynxfree.jynx.Global;
-import com.github.david32768.jynxfree.jynx.GlobalOption;
 import com.github.david32768.jynxfree.jynx.LogIllegalArgumentException;
 import com.github.david32768.jynxfree.jynx.ReservedWord;
 import com.github.david32768.jynxfree.transform.SlotKind;
 
+import com.github.david32768.jynxto.tojynx.DisassemblyMetrics.Phase;
+
 public class CodePrinter {
 
     private static record VTypeAnnotation(boolean visible, TypeAnnotation annotation){}
     
-    private static record Varxyzn(int slot, Label start, Label end, String name) {}
+    // start and end are label indices
+    private static record Varxyzn(int slot, int start, int end, String name) {}
     
     private final JynxPrinter ptr;
-    private final Map<Label,String> labelNames;
-    private final List<LocalVariable> vars; 
+    private final CodeAttribute codeAttribute;
+    private final LabelNames labelNames;
+    private final LocalVariables vars; 
     private final Map<Varxyzn,LocalVariableType> varSignatures;     
     private final Map<Integer, List<VTypeAnnotation>> exceptAnnotation;
-    private final Map<Label, List<VTypeAnnotation>> labelAnnotation;
+    private final LabelArray<List<VTypeAnnotation>> labelAnnotation;
     private final List<VTypeAnnotation> pendingAnnotation;
     private final List<VTypeAnnotation> varAnnotations;
-    private final Map<Label,List<LocalVariable>> startvars;
-    private final Map<Label,List<LocalVariable>> endvars;
     private final ExceptionCatcher catcher;
     private final StackChecker checker;
+    private final StackDepth stackDepth; // null if checker is used for max stack
+    private final StackComments stackComments; // null if stack is not printed
     private final StackMap stackMap;
     private final boolean printStack;
+    private final JvmVersion jvmVersion;
+    private final boolean skipFrames;
+    private final DisassemblyMetrics metrics;
 
+    // printers are created when first needed and reused
+    private InstructionPrinter instructionPrinter;
+    private AnnotationPrinter annotationPrinter;
+    private AnnotationPrinter instructionAnnotationPrinter;
+    
     private List<VerificationTypeInfo> previousLocals;
-    private int nextlab;
     private int handlerIndex;
-    private LocalVariable[] localTable; 
+    private int[] localTable; // index in vars by slot
     private int maxslot;
     
-    CodePrinter(JynxPrinter ptr, StackMap stackmap, boolean printstack) {
+    // codeAttribute is null if elements are not from a code attribute
+    CodePrinter(JynxPrinter ptr, StackMap stackmap, boolean printstack, CodeAttribute codeAttribute) {
         this.ptr = ptr.copy();
         this.printStack = printstack;
-        this.labelNames = new HashMap<>();
-        this.vars = new ArrayList<>();
+        this.codeAttribute = codeAttribute;
+        this.labelNames = new LabelNames(codeAttribute);
+        int labelCount = codeAttribute == null? 0: codeAttribute.codeLength() + 1;
+        this.vars = new LocalVariables(labelCount);
         this.varSignatures = new HashMap<>();
         this.exceptAnnotation = new HashMap<>();
-        this.labelAnnotation = new HashMap<>();
+        this.labelAnnotation = new LabelArray<>(labelCount);
         this.pendingAnnotation = new ArrayList<>();
         this.varAnnotations = new ArrayList<>();
         this.previousLocals = Collections.emptyList();  // to print first stackmap in full
                                                         // or use stackmap.initialLocals() for changws
-        this.startvars = new HashMap<>();
-        this.endvars = new HashMap<>();
         this.catcher = new ExceptionCatcher();
         this.stackMap = stackmap;
         this.checker = StackChecker.of(this.stackMap);
-        this.nextlab = 0;
+        // stack simulation is only needed for max stack if stack is not printed
+        this.jvmVersion = ptr.context().jvmVersion();
+        this.skipFrames = ptr.context().skipFrames();
+        this.stackDepth = printstack || jvmVersion.supports(Feature.subroutines)?
+                null:
+                new StackDepth(this.stackMap);
+        this.stackComments = printstack? new StackComments(): null;
+        this.metrics = DisassemblyMetrics.current();
         this.handlerIndex = 0;
         this.localTable = null;
         this.maxslot = 0;
     }
 
     private String labelName(Label label) {
-        return labelNames.computeIfAbsent(label, lab -> newLabel());
+        return labelNames.nameOf(label);
     }
     
-    private String newLabel() {
-        return "@L" + nextlab++;
+    private AnnotationPrinter annotationPrinter() {
+        if (annotationPrinter == null) {
+            annotationPrinter = new AnnotationPrinter(ptr);
+        }
+        return annotationPrinter;
     }
     
-    void process(CodeModel cm, CodeAttribute codeAttribute, List<SlotKind> parmslots) {
+    void process(CodeModel cm, List<SlotKind> parmslots) {
         assert codeAttribute != null;
 
-        if (JVM_VERSION().supports(Feature.subroutines)) {
-            checker.setJsrLabels(cm.elementList());
+        // elements are streamed from the code model unless already needed for subroutines
+        List<CodeElement> elements = null;
+        if (jvmVersion.supports(Feature.subroutines)) {
+            elements = cm.elementList();
+            checker.setJsrLabels(elements);
         }
         ptr.incrDepth().incrDepth();
         int codelocals = codeAttribute.maxLocals();
-        localTable = new LocalVariable[codelocals];
+        localTable = new int[codelocals];
+        Arrays.fill(localTable, LocalVariables.NONE);
         maxslot = parmslots.size();
-        process(cm.attributes(), cm.elementList());
+        process(cm, elements);
         ptr.decrDepth().decrDepth();
         checkStackLocal(res_locals, maxslot, codelocals);
         ptr.print(dir_limit, res_locals, codelocals).nl();
-        int mystack = checker.maxStack();
+        int mystack = stackDepth == null? checker.maxStack(): stackDepth.maxStack();
         int codestack = codeAttribute.maxStack();
         checkStackLocal(res_stack, mystack, codestack);
         ptr.print(dir_limit, res_stack, codestack).nl();
@@ -148,29 +172,33 @@ public class CodePrinter {
     
     public static void printElements(Consumer<String> consumer, List<CodeElement> elements) {
         var ptr = new JynxPrinter(consumer);
-        var codeptr = new CodePrinter(ptr, StackMap.NONE, true);
+        var codeptr = new CodePrinter(ptr, StackMap.NONE, true, null);
         for (var element : elements) {
             codeptr.processElement(element);
         }
     }
     
-    private void process(List<Attribute<?>> attributes, List<CodeElement> elements) {
-        for (var attribute : attributes) {
+    private void process(CodeModel cm, List<CodeElement> elements) {
+        for (var attribute : cm.attributes()) {
             preProcessAttribute(attribute);
         }
-        for (var element : elements) {
-            processElement(element);
+        if (elements == null) {
+            cm.forEach(this::processElement);
+        } else {
+            for (var element : elements) {
+                processElement(element);
+            }
         }
         assert exceptAnnotation.isEmpty();
         assert labelAnnotation.isEmpty();
         assert pendingAnnotation.isEmpty();
-        for (var local : vars) {
-            processLocalVariable(local);
+        for (int lv = 0; lv < vars.size(); ++lv) {
+            processLocalVariable(lv);
         }
         assert varSignatures.isEmpty();
         for (var local : varAnnotations) {
-            var ap = new AnnotationPrinter(ptr);
-            ap.processLocalVarAnnotation(local.visible(), local.annotation(), labelNames);
+            var ap = annotationPrinter();
+            ap.processLocalVarAnnotation(local.visible(), local.annotation(), labelNames::nameIfPresent);
         }
     }
 
@@ -201,12 +229,21 @@ public class CodePrinter {
             case Attribute _ -> {} // already processed in preProcessAttribute
             case Instruction inst -> {
                 processInstruction(inst);
-                checker.instruction(inst);
+                metrics.instruction();
+                long checkStart = metrics.startNanos();
+                if (stackDepth == null) {
+                    checker.instruction(inst);
+                } else {
+                    stackDepth.instruction(inst);
+                }
+                metrics.addNanos(Phase.STACK_CHECKER, checkStart);
                 if (printStack) {
                     var stackStr = checker.stackAsString();
                     if (stackStr.isPresent()) {
                         // "bci -> %d stack -> %s"
-                        ptr.incrDepth().comment(M608, checker.offset(), stackStr.orElseThrow()).decrDepth();
+                        ptr.incrDepth()
+                                .comment(stackComments.render(checker.offset(), stackStr.orElseThrow()))
+                                .decrDepth();
                     }
                 }
             }
@@ -220,22 +257,23 @@ public class CodePrinter {
         }
     }
 
-    private void processLocalVariable(LocalVariable local) {
-        var key = new Varxyzn(local.slot(), local.startScope(), local.endScope(), local.name().stringValue());
+    private void processLocalVariable(int lv) {
+        var name = vars.name(lv);
+        var key = new Varxyzn(vars.slot(lv), vars.start(lv), vars.end(lv), name.stringValue());
         var type = varSignatures.remove(key);
-        ptr.print(Directive.dir_var, local.slot());
-        ptr.print(ReservedWord.res_is, local.name());
-        ptr.print(local.type());
+        ptr.print(Directive.dir_var, vars.slot(lv));
+        ptr.print(ReservedWord.res_is, name);
+        ptr.print(vars.type(lv));
         if (type != null) {
-            if (type.name().equals(local.name())) {
+            if (type.name().equals(name)) {
                 ptr.print(ReservedWord.res_signature, type.signature());
             } else {
                 // "local variable name %s is different from name in type %s"
-                throw new LogIllegalArgumentException(M137, local.name(), type.name());
+                throw new LogIllegalArgumentException(M137, name, type.name());
             }
         }
-        String start = labelName(local.startScope());
-        String end = labelName(local.endScope());
+        String start = labelNames.nameOfIndex(vars.start(lv));
+        String end = labelNames.nameOfIndex(vars.end(lv));
         ptr.print(ReservedWord.res_from, start, ReservedWord.res_to, end).nl();
     }
 
@@ -244,10 +282,10 @@ public class CodePrinter {
         var target = annotation.targetInfo();
         switch (target) {
             case TypeAnnotation.OffsetTarget t -> {
-                labelAnnotation.computeIfAbsent(t.target(), l -> new ArrayList<>()).add(type);
+                labelAnnotation.computeIfAbsent(labelNames.indexOf(t.target()), ArrayList::new).add(type);
             }
             case TypeAnnotation.TypeArgumentTarget t -> {
-                labelAnnotation.computeIfAbsent(t.target(), l -> new ArrayList<>()).add(type);
+                labelAnnotation.computeIfAbsent(labelNames.indexOf(t.target()), ArrayList::new).add(type);
             }
             case TypeAnnotation.CatchTarget t -> {
                 exceptAnnotation.computeIfAbsent(t.exceptionTableIndex(), i -> new ArrayList<>()).add(type);
@@ -266,7 +304,9 @@ public class CodePrinter {
         switch (pseudo) {
             case ExceptionCatch handler -> {
                 processHandler(handler);
-                checker.element(handler);
+                if (stackDepth == null) {
+                    checker.element(handler);
+                }
                 catcher.add(handler);
             }
             case LabelTarget target -> {
@@ -278,12 +318,12 @@ public class CodePrinter {
                 ptr.decrDepth().print(Directive.dir_line, line).nl().incrDepth();
             }
             case LocalVariable lv -> {
-                vars.add(lv);
-                startvars.computeIfAbsent(lv.startScope(), k -> new ArrayList<>()).add(lv);
-                endvars.computeIfAbsent(lv.endScope(), k -> new ArrayList<>()).add(lv);
+                vars.add(lv.slot(), labelNames.indexOf(lv.startScope()), labelNames.indexOf(lv.endScope()),
+                        lv.name(), lv.type());
             }
             case LocalVariableType lvt -> {
-                var key = new Varxyzn(lvt.slot(), lvt.startScope(), lvt.endScope(), lvt.name().stringValue());
+                var key = new Varxyzn(lvt.slot(), labelNames.indexOf(lvt.startScope()),
+                        labelNames.indexOf(lvt.endScope()), lvt.name().stringValue());
                 var shouldBeNull = varSignatures.put(key, lvt);
                 assert shouldBeNull == null;
             }
@@ -292,18 +332,23 @@ public class CodePrinter {
 
     private void processLabel(LabelTarget target) {
         var label = target.label();
+        int index = labelNames.indexOf(label);
         
-        var endlv = endvars.getOrDefault(label, Collections.emptyList());
-        for (var lv : endlv) {
-            localTable[lv.slot()] = null;
+        for (int lv = vars.firstEnding(index); lv != LocalVariables.NONE; lv = vars.nextEnding(lv)) {
+            localTable[vars.slot(lv)] = LocalVariables.NONE;
         }
-        var startlv = startvars.getOrDefault(label, Collections.emptyList());
-        for (var lv : startlv) {
-            assert localTable[lv.slot()] == null;
-            localTable[lv.slot()] = lv;
+        for (int lv = vars.firstStarting(index); lv != LocalVariables.NONE; lv = vars.nextStarting(lv)) {
+            assert localTable[vars.slot(lv)] == LocalVariables.NONE;
+            localTable[vars.slot(lv)] = lv;
         }
         
-        checker.labelBinding(label);
+        long checkStart = metrics.startNanos();
+        if (stackDepth == null) {
+            checker.labelBinding(label);
+        } else {
+            stackDepth.labelBinding(label);
+        }
+        metrics.addNanos(Phase.STACK_CHECKER, checkStart);
 
         String name = labelName(label) + ":";
         if (checker.isJsrLabel(label)) {
@@ -329,13 +374,13 @@ public class CodePrinter {
                 ptr.comment(M614, catchType(ex), labelName(ex.handler()));
             }
         }
-        var annotations = labelAnnotation.remove(label);
+        var annotations = labelAnnotation.remove(index);
         if (annotations != null) {
             pendingAnnotation.addAll(annotations);
         }
         
         var locals = stackMap.localsFrameFor(label);
-        if (locals != null && !Global.OPTION(GlobalOption.SKIP_FRAMES)) {
+        if (locals != null && !skipFrames) {
             ptr.print(Directive.dir_stack);
 
             boolean prefix = isPrefixOf(previousLocals, locals);
@@ -362,7 +407,7 @@ public class CodePrinter {
         }
     }
 
-    private int slotSize(VerificationTypeInfo info) {
+    static int slotSize(VerificationTypeInfo info) {
         return switch (info) {
             case StackMapFrameInfo.SimpleVerificationTypeInfo.DOUBLE -> 2;
             case StackMapFrameInfo.SimpleVerificationTypeInfo.LONG  -> 2;
@@ -382,9 +427,9 @@ public class CodePrinter {
                 ReservedWord.res_to, labelName(handler.tryEnd()),
                 ReservedWord.res_using, labelName(handler.handler())
         ).nl().incrDepth();
-        AnnotationPrinter ap = new AnnotationPrinter(ptr);
         var annotations = exceptAnnotation.remove(handlerIndex);
         if (annotations != null) {
+            AnnotationPrinter ap = annotationPrinter();
             for (var annotation: annotations) {
                 ap.processRuntimeTypeAnnotation(annotation.visible(), annotation.annotation());
             }
@@ -410,7 +455,7 @@ public class CodePrinter {
             case StackMapFrameInfo.UninitializedVerificationTypeInfo info -> {
                 assert FrameType.ft_Uninitialized == frameType;
                 var label = info.newTarget();
-                var labelName = labelNames.get(label);
+                var labelName = labelNames.nameIfPresent(label);
                 Objects.requireNonNull(labelName);
                 ptr.print(res, frameType, labelName);
             }
@@ -430,8 +475,10 @@ public class CodePrinter {
     }
     
     private void processInstruction(Instruction instruction) {
-        var instptr = new InstructionPrinter(ptr, this::labelName);
-        InstructionVisitor.visit(instptr, instruction);
+        if (instructionPrinter == null) {
+            instructionPrinter = new InstructionPrinter(ptr, this::labelName);
+        }
+        InstructionVisitor.visit(instructionPrinter, instruction);
         ptr.incrDepth();
         Optional<Integer> slot = Instructions.slot(instruction);
         if (slot.isPresent()) {
@@ -445,17 +492,21 @@ public class CodePrinter {
             maxslot = Math.max(maxslot, slot.get() + slotsz);
         }
         if (printStack && slot.isPresent()) {
-            LocalVariable lv = localTable[slot.get()];
-            if (lv != null) {
+            int lv = localTable[slot.get()];
+            if (lv != LocalVariables.NONE) {
                 // "slot %d name = %s, type = %s"
-                ptr.comment(M613, lv.slot(), lv.name(), lv.type().stringValue());
+                ptr.comment(M613, vars.slot(lv), vars.name(lv), vars.type(lv).stringValue());
             }
         }
-        AnnotationPrinter ap = new AnnotationPrinter(ptr);
-        for (var annotation: pendingAnnotation) {
-            ap.processRuntimeTypeAnnotation(annotation.visible(), annotation.annotation());
+        if (!pendingAnnotation.isEmpty()) {
+            if (instructionAnnotationPrinter == null) {
+                instructionAnnotationPrinter = new AnnotationPrinter(ptr);
+            }
+            for (var annotation: pendingAnnotation) {
+                instructionAnnotationPrinter.processRuntimeTypeAnnotation(annotation.visible(), annotation.annotation());
+            }
+            pendingAnnotation.clear();
         }
-        pendingAnnotation.clear();
         ptr.decrDepth();
     }
 
@@ -0,0 +1,110 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.lang.classfile.attribute.CodeAttribute;
+import java.lang.classfile.Opcode;
+
+import static com.github.david32768.jynxto.my.Message.M626;
+import static com.github.david32768.jynxto.my.Message.M627;
+
+// if -Djynxto.summary=true code metrics are printed instead of instructions;
+// the opcode histogram is from a scan of the code array so instructions are not inflated
+class CodeSummary {
+
+    private static final String SUMMARY_PROPERTY = "jynxto.summary";
+    static final boolean ENABLED = Boolean.getBoolean(SUMMARY_PROPERTY);
+
+    private static final int WIDE_BYTECODE = 0xc4;
+    private static final Opcode[] ALL_OPCODES = Opcode.values();
+    private static final Opcode[] OPCODES = new Opcode[256];
+    private static final Opcode[] WIDE_OPCODES = new Opcode[256];
+
+    static {
+        for (var op : ALL_OPCODES) {
+            if (op.isWide()) {
+                WIDE_OPCODES[op.bytecode() & 0xff] = op;
+            } else {
+                OPCODES[op.bytecode()] = op;
+            }
+        }
+    }
+
+    private CodeSummary() {}
+
+    static void process(JynxPrinter ptr, CodeAttribute code) {
+        // "code length %d max stack %d max locals %d handlers %d"
+        ptr.comment(M626, code.codeLength(), code.maxStack(), code.maxLocals(),
+                code.exceptionHandlers().size());
+        int[] counts = histogram(code.codeArray());
+        // "instructions %s"
+        ptr.comment(M627, histogramString(counts));
+    }
+
+    private static int[] histogram(byte[] code) {
+        int[] counts = new int[ALL_OPCODES.length];
+        int bci = 0;
+        while (bci < code.length) {
+            int bytecode = code[bci] & 0xff;
+            Opcode op;
+            int size;
+            if (bytecode == WIDE_BYTECODE && bci + 1 < code.length) {
+                op = WIDE_OPCODES[code[bci + 1] & 0xff];
+                size = op == null? 2: op.sizeIfFixed();
+            } else {
+                op = OPCODES[bytecode];
+                size = op == null? 1: sizeOf(op, code, bci);
+            }
+            if (size <= 0 || bci + size > code.length) {
+                break; // malformed code
+            }
+            if (op != null) {
+                ++counts[op.ordinal()];
+            }
+            bci += size;
+        }
+        return counts;
+    }
+
+    private static int sizeOf(Opcode op, byte[] code, int bci) {
+        int start = (bci + 4) & ~3; // after padding
+        return switch (op) {
+            case TABLESWITCH -> {
+                if (start + 12 > code.length) {
+                    yield -1;
+                }
+                long low = readInt(code, start + 4);
+                long high = readInt(code, start + 8);
+                yield (int)Math.min(Integer.MAX_VALUE, start - bci + 12 + 4 * (high - low + 1));
+            }
+            case LOOKUPSWITCH -> {
+                if (start + 8 > code.length) {
+                    yield -1;
+                }
+                long npairs = readInt(code, start + 4);
+                yield (int)Math.min(Integer.MAX_VALUE, start - bci + 8 + 8 * npairs);
+            }
+            default -> op.sizeIfFixed();
+        };
+    }
+
+    private static int readInt(byte[] code, int index) {
+        return (code[index] & 0xff) << 24
+                | (code[index + 1] & 0xff) << 16
+                | (code[index + 2] & 0xff) << 8
+                | (code[index + 3] & 0xff);
+    }
+
+    private static String histogramString(int[] counts) {
+        StringBuilder sb = new StringBuilder();
+        for (var op : ALL_OPCODES) {
+            int count = counts[op.ordinal()];
+            if (count != 0) {
+                if (!sb.isEmpty()) {
+                    sb.append(", ");
+                }
+                sb.append(op.name().toLowerCase()).append(' ').append(count);
+            }
+        }
+        return sb.toString();
+    }
+
+}
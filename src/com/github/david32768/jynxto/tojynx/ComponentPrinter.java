@@ -15,10 +15,19 @@ public class ComponentPrinter {
 
     private final JynxPrinter ptr;
 
+    private AnnotationPrinter annotationPrinter; // created when first needed
+
     ComponentPrinter(JynxPrinter ptr) {
         this.ptr = ptr.copy();
     }
 
+    private AnnotationPrinter annotationPrinter() {
+        if (annotationPrinter == null) {
+            annotationPrinter = new AnnotationPrinter(ptr);
+        }
+        return annotationPrinter;
+    }
+
 
     void process(RecordComponentInfo component) {
         ptr.nl().print(Directive.dir_component, component.name(), component.descriptorSymbol());
@@ -29,25 +38,25 @@ public class ComponentPrinter {
                     ptr.print(Directive.dir_signature, attr.signature()).nl();
                 }
                 case RuntimeInvisibleAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeAnnotation(false, annotation);
                     }
                 }
                 case RuntimeVisibleAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeAnnotation(true, annotation);
                     }
                 }
                 case RuntimeInvisibleTypeAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeTypeAnnotation(false, (TypeAnnotation)annotation);
                     }
                 }
                 case RuntimeVisibleTypeAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeTypeAnnotation(true, (TypeAnnotation)annotation);
                     }
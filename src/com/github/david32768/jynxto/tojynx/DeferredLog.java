@@ -0,0 +1,15 @@
+package com.github.david32768.jynxto.tojynx;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+
+import com.github.david32768.jynxfree.jynx.JynxMessage;
+
+// a message from a pool thread that is logged later by the printing thread
+// so it is reported with the class it belongs to
+record DeferredLog(JynxMessage msg, Object... objs) {
+
+    void log() {
+        LOG(msg, objs);
+    }
+
+}
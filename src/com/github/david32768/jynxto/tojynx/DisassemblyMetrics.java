@@ -0,0 +1,276 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+
+// per class wall time and allocated bytes for each phase of a disassembly
+// reported as CSV (or JSON if the file name ends with .json) if -Djynxto.metrics=file is set
+class DisassemblyMetrics {
+
+    enum Phase {
+        PARSE,
+        STACK_MAP,
+        CLASS_HEADER,
+        FIELDS,
+        METHODS, // includes STACK_CHECKER
+        STACK_CHECKER, // time only as measured per instruction
+        FLUSH,
+        ;
+    }
+
+    private static final String METRICS_PROPERTY = "jynxto.metrics";
+    private static final String JSON_SUFFIX = ".json";
+    private static final String TOTAL_NAME = "TOTAL";
+    private static final int PHASE_COUNT = Phase.values().length;
+    // classes kept for the report in a long running process; older classes are only in the total
+    private static final int MAX_CLASSES = 100_000;
+
+    private static final String REPORT_NAME = System.getProperty(METRICS_PROPERTY);
+    static final boolean ENABLED = REPORT_NAME != null && !REPORT_NAME.isBlank();
+
+    private static final com.sun.management.ThreadMXBean THREADS = ENABLED?
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean():
+            null;
+    private static final DisassemblyMetrics NONE = new DisassemblyMetrics(0);
+    private static final ThreadLocal<DisassemblyMetrics> CURRENT = new ThreadLocal<>();
+    private static final Queue<DisassemblyMetrics> COMPLETED = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger COMPLETED_COUNT = new AtomicInteger();
+
+    private static DisassemblyMetrics dropped = newTotal();
+
+    private final long[] nanos;
+    private final long[] allocated;
+    private final long[] startNanos;
+    private final long[] startAllocated;
+    private long bytesIn;
+
+    private String className;
+    private long charsOut;
+    private long instructions;
+
+    private DisassemblyMetrics(long bytesIn) {
+        this.nanos = new long[PHASE_COUNT];
+        this.allocated = new long[PHASE_COUNT];
+        this.startNanos = new long[PHASE_COUNT];
+        this.startAllocated = new long[PHASE_COUNT];
+        this.bytesIn = bytesIn;
+        this.className = "";
+        this.charsOut = 0;
+        this.instructions = 0;
+    }
+
+    static DisassemblyMetrics of(byte[] bytes) {
+        return ENABLED? new DisassemblyMetrics(bytes.length): NONE;
+    }
+
+    // metrics of class being printed on this thread
+    static DisassemblyMetrics current() {
+        var metrics = CURRENT.get();
+        return metrics == null? NONE: metrics;
+    }
+
+    void makeCurrent(String classname) {
+        if (this == NONE) {
+            return;
+        }
+        this.className = classname;
+        CURRENT.set(this);
+    }
+
+    void complete() {
+        if (this == NONE) {
+            return;
+        }
+        CURRENT.remove();
+        COMPLETED.add(this);
+        if (COMPLETED_COUNT.incrementAndGet() > MAX_CLASSES) {
+            var oldest = COMPLETED.poll();
+            if (oldest != null) {
+                COMPLETED_COUNT.decrementAndGet();
+                addDropped(oldest);
+            }
+        }
+    }
+
+    private static DisassemblyMetrics newTotal() {
+        var total = new DisassemblyMetrics(0);
+        total.className = TOTAL_NAME;
+        return total;
+    }
+
+    private static synchronized void addDropped(DisassemblyMetrics metrics) {
+        dropped.add(metrics);
+    }
+
+    private static synchronized DisassemblyMetrics takeDropped() {
+        var result = dropped;
+        dropped = newTotal();
+        return result;
+    }
+
+    private void add(DisassemblyMetrics metrics) {
+        bytesIn += metrics.bytesIn;
+        charsOut += metrics.charsOut;
+        instructions += metrics.instructions;
+        for (int i = 0; i < PHASE_COUNT; ++i) {
+            nanos[i] += metrics.nanos[i];
+            allocated[i] += metrics.allocated[i];
+        }
+    }
+
+    void start(Phase phase) {
+        if (this == NONE) {
+            return;
+        }
+        startAllocated[phase.ordinal()] = allocatedBytes();
+        startNanos[phase.ordinal()] = System.nanoTime();
+    }
+
+    void stop(Phase phase) {
+        if (this == NONE) {
+            return;
+        }
+        nanos[phase.ordinal()] += System.nanoTime() - startNanos[phase.ordinal()];
+        allocated[phase.ordinal()] += allocatedBytes() - startAllocated[phase.ordinal()];
+    }
+
+    // cheap timing for very frequent events; returns 0 if not enabled
+    long startNanos() {
+        return this == NONE? 0: System.nanoTime();
+    }
+
+    void addNanos(Phase phase, long start) {
+        if (this == NONE) {
+            return;
+        }
+        nanos[phase.ordinal()] += System.nanoTime() - start;
+    }
+
+    void instruction() {
+        if (this != NONE) {
+            ++instructions;
+        }
+    }
+
+    void output(long chars) {
+        if (this != NONE) {
+            charsOut += chars;
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    static void report() {
+        if (!ENABLED || COMPLETED.isEmpty()) {
+            return;
+        }
+        List<DisassemblyMetrics> classes = new ArrayList<>();
+        for (var metrics = COMPLETED.poll(); metrics != null; metrics = COMPLETED.poll()) {
+            COMPLETED_COUNT.decrementAndGet();
+            classes.add(metrics);
+        }
+        var total = takeDropped();
+        for (var metrics : classes) {
+            total.add(metrics);
+        }
+        Path path = Path.of(REPORT_NAME);
+        try (var pw = new PrintWriter(Files.newBufferedWriter(path))) {
+            if (REPORT_NAME.endsWith(JSON_SUFFIX)) {
+                writeJson(pw, classes, total);
+            } else {
+                writeCsv(pw, classes, total);
+            }
+        } catch (IOException ex) {
+            LOG(ex);
+        }
+    }
+
+    private static void writeCsv(PrintWriter pw, List<DisassemblyMetrics> classes, DisassemblyMetrics total) {
+        pw.print("class,bytes_in,chars_out,instructions");
+        for (var phase : Phase.values()) {
+            String name = phase.name().toLowerCase();
+            pw.print("," + name + "_ns," + name + "_alloc_bytes");
+        }
+        pw.println();
+        for (var metrics : classes) {
+            metrics.writeCsvRow(pw);
+        }
+        total.writeCsvRow(pw);
+    }
+
+    private void writeCsvRow(PrintWriter pw) {
+        pw.print(csvQuote(className) + "," + bytesIn + "," + charsOut + "," + instructions);
+        for (int i = 0; i < PHASE_COUNT; ++i) {
+            pw.print("," + nanos[i] + "," + allocated[i]);
+        }
+        pw.println();
+    }
+
+    private static String csvQuote(String str) {
+        if (str.indexOf(',') < 0 && str.indexOf('"') < 0) {
+            return str;
+        }
+        return '"' + str.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeJson(PrintWriter pw, List<DisassemblyMetrics> classes, DisassemblyMetrics total) {
+        pw.println("{");
+        pw.println("  \"classes\": [");
+        for (int i = 0; i < classes.size(); ++i) {
+            pw.print("    ");
+            classes.get(i).writeJsonObject(pw);
+            pw.println(i == classes.size() - 1? "": ",");
+        }
+        pw.println("  ],");
+        pw.print("  \"total\": ");
+        total.writeJsonObject(pw);
+        pw.println();
+        pw.println("}");
+    }
+
+    private void writeJsonObject(PrintWriter pw) {
+        pw.print("{\"class\": " + jsonQuote(className)
+                + ", \"bytes_in\": " + bytesIn
+                + ", \"chars_out\": " + charsOut
+                + ", \"instructions\": " + instructions
+                + ", \"phases\": {");
+        for (var phase : Phase.values()) {
+            int i = phase.ordinal();
+            pw.print((i == 0? "": ", ")
+                    + jsonQuote(phase.name().toLowerCase())
+                    + ": {\"ns\": " + nanos[i] + ", \"alloc_bytes\": " + allocated[i] + "}");
+        }
+        pw.print("}}");
+    }
+
+    private static String jsonQuote(String str) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : str.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int)c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
@@ -8,8 +8,11 @@ import java.lang.classfile.Label;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 import com.github.david32768.jynxfree.classfile.Comparators;
 
@@ -18,16 +21,23 @@ public class ExceptionCatcher {
     private final Map<Label,List<ExceptionCatch>> startCatch;
     private final Map<Label,List<ExceptionCatch>> endCatch;
     private final Map<Label,List<ExceptionCatch>> handleCatch;
-    private final List<ExceptionCatch> currentCatch;
+    // distinguishes handlers that compare equal so each is held in currentCatch
+    private final Map<ExceptionCatch,Integer> sequence;
+    private final NavigableSet<ExceptionCatch> currentCatch;
+    // copy of currentCatch; null if currentCatch has changed since copied
+    private List<ExceptionCatch> currentList;
 
     public ExceptionCatcher() {
         this.startCatch = new HashMap<>();
         this.endCatch = new HashMap<>();
         this.handleCatch = new HashMap<>();
-        this.currentCatch = new ArrayList<>();
+        this.sequence = new IdentityHashMap<>();
+        this.currentCatch = new TreeSet<>(this::compareInSequence);
+        this.currentList = List.of();
     }
 
     void add(ExceptionCatch handler) {
+        sequence.put(handler, sequence.size());
         startCatch.computeIfAbsent(handler.tryStart(), k -> new ArrayList<>()).add(handler);
         endCatch.computeIfAbsent(handler.tryEnd(), k -> new ArrayList<>()).add(handler);
         handleCatch.computeIfAbsent(handler.handler(), k -> new ArrayList<>()).add(handler);
@@ -37,21 +47,35 @@ public class ExceptionCatcher {
     List<ExceptionCatch> update(Label label) {
         var exlist = endCatch.getOrDefault(label, Collections.emptyList());
         for (var ex : exlist) {
-            currentCatch.remove(ex);
+            if (currentCatch.remove(ex)) {
+                currentList = null;
+            }
         }
         exlist = startCatch.getOrDefault(label, Collections.emptyList());
         for (var ex : exlist) {
-            currentCatch.add(ex);
+            if (currentCatch.add(ex)) {
+                currentList = null;
+            }
         }
         var handlers = handleCatch.getOrDefault(label, Collections.emptyList());
-        return List.copyOf(handlers);
+        return Collections.unmodifiableList(handlers);
     }
 
+    // the set is kept in order as handlers start and end so is only copied when changed
     public List<ExceptionCatch> currentCatch() {
-        Collections.sort(currentCatch, ExceptionCatcher::compare);
-        return List.copyOf(currentCatch);
-    }    
-    
+        if (currentList == null) {
+            currentList = List.copyOf(currentCatch);
+        }
+        return currentList;
+    }
+
+    private int compareInSequence(ExceptionCatch o1, ExceptionCatch o2) {
+        int result = compare(o1, o2);
+        return result == 0?
+                Integer.compare(sequence.get(o1), sequence.get(o2)):
+                result;
+    }
+
     public static int compare(ExceptionCatch o1, ExceptionCatch o2) {
         var opt1 = o1.catchType().map(ClassEntry::asInternalName);
         var opt2 = o2.catchType().map(ClassEntry::asInternalName);
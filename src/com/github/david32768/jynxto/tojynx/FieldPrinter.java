@@ -19,13 +19,22 @@ public class FieldPrinter {
 
     private final JynxPrinter ptr;
 
+    private AnnotationPrinter annotationPrinter; // created when first needed
+
     FieldPrinter(JynxPrinter ptr) {
         this.ptr = ptr.copy();
     }
 
+    private AnnotationPrinter annotationPrinter() {
+        if (annotationPrinter == null) {
+            annotationPrinter = new AnnotationPrinter(ptr);
+        }
+        return annotationPrinter;
+    }
+
 
     void process(FieldModel fm) {
-        var accessName = AccessName.ofField(fm);
+        var accessName = AccessName.ofField(fm, ptr.context().jvmVersion());
         ptr.nl().print(Directive.dir_field, accessName, fm.fieldType());
         var cva = fm.findAttribute(Attributes.constantValue());
         if (cva.isPresent()) {
@@ -49,25 +58,25 @@ public class FieldPrinter {
                     ptr.print(Directive.dir_signature, attr.signature()).nl();
                 }
                 case RuntimeInvisibleAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeAnnotation(false, annotation);
                     }
                 }
                 case RuntimeVisibleAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeAnnotation(true, annotation);
                     }
                 }
                 case RuntimeInvisibleTypeAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeTypeAnnotation(false, (TypeAnnotation)annotation);
                     }
                 }
                 case RuntimeVisibleTypeAnnotationsAttribute attr -> {
-                    AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                    AnnotationPrinter ap = annotationPrinter();
                     for (var annotation : attr.annotations()) {
                         ap.processRuntimeTypeAnnotation(true, (TypeAnnotation)annotation);
                     }
@@ -0,0 +1,216 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+import static com.github.david32768.jynxfree.jynx.Global.OPTIONS;
+import static com.github.david32768.jynxto.my.Message.M624;
+
+import com.github.david32768.jynxfree.jynx.GlobalOption;
+
+// on-disk cache of .jx output keyed by a digest of the class bytes, options and version;
+// if frames were synthesised the classes resolved for them are stored with the output
+// and it is only used if they still resolve the same, e.g. a rebuilt jar with a changed superclass
+public class JynxCache {
+
+    private static final String CACHE_PROPERTY = "jynxto.cache";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String JX_SUFFIX = ".jx";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    // read from Global once so keyOf may be called on any thread
+    private final String options;
+
+    private JynxCache(Path root) {
+        this.root = root;
+        this.options = optionString();
+    }
+
+    public static Optional<JynxCache> ofProperty() {
+        String dir = System.getProperty(CACHE_PROPERTY);
+        if (dir == null || dir.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new JynxCache(Path.of(dir)));
+    }
+
+    public String keyOf(byte[] bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError(ex);
+        }
+        digest.update(MainToJynx.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        digest.update(options.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        digest.update((byte)(CodeSummary.ENABLED? 1: 0));
+        digest.update(MemberFilter.FIELDS.regex().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        digest.update(MemberFilter.METHODS.regex().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        // parallelism does not affect output; the class hierarchy is checked by get
+        digest.update(bytes);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String optionString() {
+        return OPTIONS().stream()
+                .map(GlobalOption::name)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    public Optional<String> get(String key) {
+        return get(key, ClassHierarchyCache.Inputs.NONE, DeferredLog::log);
+    }
+
+    // messages are passed to log so a caller on a pool thread can report them when printing
+    Optional<String> get(String key, ClassHierarchyCache.Inputs inputs, Consumer<DeferredLog> log) {
+        var event = new JynxEvents.CacheLookup();
+        event.begin();
+        var cached = read(key, log)
+                .flatMap(content -> validOutput(content, inputs));
+        if (event.shouldCommit()) {
+            event.key = key;
+            event.hit = cached.isPresent();
+            event.outputChars = cached.map(String::length).orElse(0);
+            event.commit();
+        }
+        return cached;
+    }
+    
+    // content is the number of hierarchy lines, the hierarchy lines and then the output
+    private static Optional<String> validOutput(String content, ClassHierarchyCache.Inputs inputs) {
+        int start = 0;
+        int end = content.indexOf('\n');
+        int count;
+        try {
+            count = end < 0? -1: Integer.parseInt(content.substring(start, end));
+        } catch (NumberFormatException ex) {
+            count = -1;
+        }
+        if (count < 0) {
+            return Optional.empty();
+        }
+        for (int i = 0; i < count; ++i) {
+            start = end + 1;
+            end = content.indexOf('\n', start);
+            if (end < 0) {
+                return Optional.empty();
+            }
+            String line = content.substring(start, end);
+            String[] parts = line.split(" ");
+            if (parts.length < 2 || !ClassHierarchyCache.SHARED.describe(parts[1], inputs).equals(line)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(content.substring(end + 1));
+    }
+
+    private Optional<String> read(String key, Consumer<DeferredLog> log) {
+        Path path = pathOf(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readString(path));
+        } catch (IOException ex) {
+            // "disassembly cache %s not used: %s"
+            log.accept(new DeferredLog(M624, path, ex));
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, String jx) {
+        put(key, jx, List.of());
+    }
+
+    void put(String key, String jx, List<String> hierarchy) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(hierarchy.size()).append('\n');
+        hierarchy.forEach(line -> sb.append(line).append('\n'));
+        sb.append(jx);
+        Path path = pathOf(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), key, TEMP_SUFFIX);
+            Files.writeString(temp, sb);
+            move(temp, path);
+        } catch (IOException ex) {
+            // "disassembly cache %s not used: %s"
+            LOG(M624, path, ex);
+        } finally {
+            deleteTemp(temp, path);
+        }
+    }
+
+    private static void move(Path temp, Path path) throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // temp does not exist if moved
+    private static void deleteTemp(Path temp, Path path) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ex) {
+            // "disassembly cache %s not used: %s"
+            LOG(M624, path, ex);
+        }
+    }
+
+    boolean toJynx(byte[] bytes, PrintWriter pw) {
+        String key = keyOf(bytes);
+        var cached = get(key);
+        if (cached.isPresent()) {
+            pw.print(cached.get());
+            pw.flush();
+            return true;
+        }
+        return toJynx(key, ToJynx.parse(bytes), pw);
+    }
+
+    boolean toJynx(String key, ToJynx.ParsedClass parsed, PrintWriter pw) {
+        StringWriter sw = new StringWriter();
+        boolean success;
+        try (PrintWriter swpw = new PrintWriter(sw)) {
+            success = ToJynx.toJynx(parsed, swpw);
+        }
+        String jx = sw.toString();
+        if (success) {
+            put(key, jx, parsed.hierarchy());
+        }
+        pw.print(jx);
+        pw.flush();
+        return success;
+    }
+
+    private Path pathOf(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key + JX_SUFFIX);
+    }
+
+}
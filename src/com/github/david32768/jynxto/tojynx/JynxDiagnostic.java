@@ -0,0 +1,17 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.util.function.Consumer;
+
+import com.github.david32768.jynxfree.jynx.JynxMessage;
+import com.github.david32768.jynxfree.jynx.LogMsgType;
+
+// a message that is also logged; line is the line of the .jx output it refers to or zero
+public record JynxDiagnostic(String id, LogMsgType type, String message, int line) {
+
+    static final Consumer<JynxDiagnostic> IGNORE = _ -> {};
+
+    static JynxDiagnostic of(JynxMessage msg, int line, Object... objs) {
+        return new JynxDiagnostic(msg.toString(), msg.getLogtype(), msg.format(objs), line);
+    }
+
+}
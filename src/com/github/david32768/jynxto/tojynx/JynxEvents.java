@@ -0,0 +1,113 @@
+package com.github.david32768.jynxto.tojynx;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR events so slow classes can be found in a long running process;
+// fields are only set if the event will be committed
+final class JynxEvents {
+
+    private static final String PREFIX = "com.github.david32768.jynxto.";
+    private static final String CATEGORY = "JynxTo";
+
+    private JynxEvents() {}
+
+    @Name(PREFIX + "ClassDisassembly")
+    @Label("Class Disassembly")
+    @Description("Printing of a class as Jynx")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ClassDisassembly extends Event {
+
+        @Label("Class Name")
+        String className;
+
+        @Label("Method Count")
+        int methodCount;
+
+        @Label("Output Chars")
+        @Description("Characters of Jynx output")
+        long outputChars;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name(PREFIX + "MethodPrint")
+    @Label("Method Print")
+    @Description("Printing of a method as Jynx")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class MethodPrint extends Event {
+
+        @Label("Class Name")
+        String className;
+
+        @Label("Method Name")
+        String methodName;
+
+        @Label("Method Descriptor")
+        String methodDescriptor;
+
+        @Label("Code Length")
+        @DataAmount(DataAmount.BYTES)
+        int codeLength;
+
+        @Label("Handler Count")
+        int handlerCount;
+
+        @Label("Output Chars")
+        @Description("Characters of Jynx output")
+        long outputChars;
+    }
+
+    @Name(PREFIX + "StackMapSynthesis")
+    @Label("Stack Map Synthesis")
+    @Description("Generation of stack maps for a class without them")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class StackMapSynthesis extends Event {
+
+        @Label("Class Name")
+        String className;
+
+        @Label("Method Count")
+        int methodCount;
+
+        @Label("Code Length")
+        @Description("Total code length of all methods")
+        @DataAmount(DataAmount.BYTES)
+        int codeLength;
+
+        @Label("Handler Count")
+        @Description("Total exception handlers of all methods")
+        int handlerCount;
+
+        @Label("Failure")
+        String failure;
+    }
+
+    @Name(PREFIX + "CacheLookup")
+    @Label("Cache Lookup")
+    @Description("Lookup of a class in the disassembly cache")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class CacheLookup extends Event {
+
+        @Label("Key")
+        String key;
+
+        @Label("Hit")
+        boolean hit;
+
+        @Label("Output Chars")
+        @Description("Characters of Jynx output")
+        long outputChars;
+    }
+
+}
@@ -3,6 +3,7 @@ package com.github.david32768.jynxto.tojynx;
 import java.lang.classfile.AnnotationValue;
 import java.lang.classfile.constantpool.AnnotationConstantValueEntry;
 import java.lang.classfile.constantpool.ClassEntry;
+import java.lang.classfile.constantpool.ConstantPool;
 import java.lang.classfile.constantpool.DynamicConstantPoolEntry;
 import java.lang.classfile.constantpool.FieldRefEntry;
 import java.lang.classfile.constantpool.InterfaceMethodRefEntry;
@@ -24,6 +25,8 @@ import java.lang.constant.MethodHandleDesc;
 import java.lang.constant.MethodTypeDesc;
 import java.lang.invoke.TypeDescriptor;
 import java.util.function.Consumer;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -53,18 +56,70 @@ public class JynxPrinter {
     private class Counter {
     
         private int count;
+        private long chars;
 
         Counter() {
             count = 0;
+            chars = 0;
         }
         
-        void incr() {
+        void incr(int length) {
             ++count;
+            chars += length;
         }
         
         int count() {
             return count;
         }
+        
+        long chars() {
+            return chars;
+        }
+    }
+    
+    // rendered text of pool entries; keyed by constant pool and index
+    private static class PoolCache {
+        
+        private final Map<ConstantPool, String[]> rendered;
+        
+        private ConstantPool lastPool;
+        private String[] lastRendered;
+        private int hits;
+        private int misses;
+
+        PoolCache() {
+            this.rendered = new IdentityHashMap<>();
+            this.hits = 0;
+            this.misses = 0;
+        }
+        
+        private String[] renderedFor(ConstantPool pool) {
+            if (pool != lastPool) {
+                lastPool = pool;
+                lastRendered = rendered.computeIfAbsent(pool, cp -> new String[cp.size()]);
+            }
+            return lastRendered;
+        }
+        
+        String get(PoolEntry entry) {
+            var strings = renderedFor(entry.constantPool());
+            int index = entry.index();
+            String result = index < strings.length? strings[index]: null;
+            if (result == null) {
+                ++misses;
+            } else {
+                ++hits;
+            }
+            return result;
+        }
+        
+        void put(PoolEntry entry, String string) {
+            var strings = renderedFor(entry.constantPool());
+            int index = entry.index();
+            if (index < strings.length) {
+                strings[index] = string;
+            }
+        }
     }
     
     private static final char TOKEN_SEPARATOR = ' ';
@@ -72,32 +127,62 @@ public class JynxPrinter {
     private static final char NEWLINE = '\n';
 
     private final StringBuilder sb;
-    private final Consumer<String> consumer;
+    private final LineSink sink;
     private final int lwm;
     private final Counter lineCounter;
+    private final PoolCache poolCache;
+    private final ToJynxContext context;
     
     private int depth;
     private boolean printNext;
 
     public JynxPrinter(Consumer<String> consumer) {
-        this(consumer, 0, null);
+        this(LineSink.of(consumer), 0, null, null, ToJynxContext.ofGlobal());
     }
     
-    private JynxPrinter(Consumer<String> consumer, int lwm, Counter counter) {
+    private JynxPrinter(LineSink sink, int lwm, Counter counter, PoolCache poolCache, ToJynxContext context) {
         this.sb = new StringBuilder();
-        this.consumer = consumer;
+        this.sink = sink;
         this.lwm = lwm;
         this.depth = lwm;
         this.lineCounter = counter == null? new Counter():counter;
+        this.poolCache = poolCache == null? new PoolCache(): poolCache;
+        this.context = context;
         this.printNext = false;
     }
     
+    // a static factory avoids an ambiguous constructor when called with a lambda
+    public static JynxPrinter of(LineSink sink) {
+        return of(sink, ToJynxContext.ofGlobal());
+    }
+    
+    static JynxPrinter of(LineSink sink, ToJynxContext context) {
+        return new JynxPrinter(sink, 0, null, null, context);
+    }
+    
     public JynxPrinter copy() {
-        return new JynxPrinter(consumer, depth, lineCounter);
+        return new JynxPrinter(sink, depth, lineCounter, poolCache, context);
     }
     
     public JynxPrinter nested() {
-        return new JynxPrinter(consumer, depth + 1, lineCounter);
+        return new JynxPrinter(sink, depth + 1, lineCounter, poolCache, context);
+    }
+    
+    ToJynxContext context() {
+        return context;
+    }
+    
+    // characters printed so far by this printer and its copies
+    public long charCount() {
+        return lineCounter.chars();
+    }
+    
+    public int poolCacheHits() {
+        return poolCache.hits;
+    }
+    
+    public int poolCacheMisses() {
+        return poolCache.misses;
     }
     
     public JynxPrinter incrDepth() {
@@ -182,14 +267,14 @@ public class JynxPrinter {
     }
     
     public JynxPrinter nl() {
-        lineCounter.incr();
         if (printNext) {
             // "%s ; line %d"
-            LOG(M612, sb, lineCounter.count());
+            LOG(M612, sb, lineCounter.count() + 1);
             printNext = false;
         }
         sb.append(NEWLINE);
-        consumer.accept(sb.toString());
+        lineCounter.incr(sb.length());
+        sink.line(sb);
         sb.setLength(0);
         return this;
     }
@@ -211,11 +296,23 @@ public class JynxPrinter {
         nl();
         if (msg.getLogtype() != LogMsgType.BLANK) {
             LOG(msg, objs);
+            var diagnostic = new JynxDiagnostic(msg.toString(), msg.getLogtype(), comment, lineCounter.count());
+            context.diagnostics().accept(diagnostic);
             printNext = true;
         }
         return this;
     }
         
+    // text is already formatted and printable
+    public JynxPrinter comment(CharSequence text) {
+        assert sb.isEmpty();
+        sep();
+        sb.append(';');
+        sep();
+        sb.append(text);
+        return nl();
+    }
+    
     private void printAccessName(Set<AccessFlag> flags, Optional<? extends CharSequence> name) {
         printFlags(flags);
         name.ifPresent(this::printName);
@@ -347,8 +444,14 @@ public class JynxPrinter {
 
     private void printPoolEntry(PoolEntry entry) {
         switch(entry) {
-            case Utf8Entry c -> {
-                printString(c);
+            case Utf8Entry _, ClassEntry _, FieldRefEntry _, MethodRefEntry _, InterfaceMethodRefEntry _ -> {
+                String rendered = poolCache.get(entry);
+                if (rendered == null) {
+                    rendered = renderPoolEntry(entry);
+                    poolCache.put(entry, rendered);
+                }
+                sep();
+                sb.append(rendered);
             }
             case AnnotationConstantValueEntry e -> {
                 throw new UnsupportedOperationException("" + e);
@@ -356,37 +459,46 @@ public class JynxPrinter {
             case DynamicConstantPoolEntry e -> {
                 throw new UnsupportedOperationException("" + e);
             }
-            case ClassEntry c -> { // print without L; unlike LoadableConstantEntry
-                printString(c.asInternalName());
-            }
             case LoadableConstantEntry c -> {
                 printConstant(c.constantValue());
             }
+            case ModuleEntry e -> {
+                printString(e.name());
+            }
+             case NameAndTypeEntry e -> {
+                throw new UnsupportedOperationException("" + e);
+            }
+            case PackageEntry e -> {
+                printString(e.name());
+            }
+       }
+    }
+    
+    // as printed by printString(s) but without the leading separator
+    private String renderPoolEntry(PoolEntry entry) {
+        switch(entry) {
+            case Utf8Entry c -> {
+                return StringUtil.visible(c.stringValue());
+            }
+            case ClassEntry c -> { // print without L; unlike LoadableConstantEntry
+                return StringUtil.visible(c.asInternalName());
+            }
             case FieldRefEntry e -> {
                 var name = e.owner().asInternalName() + "." + e.name().stringValue();
-                printString(name);
-                printString(e.type());
+                return StringUtil.visible(name) + TOKEN_SEPARATOR + StringUtil.visible(e.type().stringValue());
             }
             case InterfaceMethodRefEntry e -> {
                 String nameDesc = e.name().stringValue() + e.type().stringValue();
                 String ownerNameDesc = "@" + e.owner().asInternalName() + "." + nameDesc;
-                printString(ownerNameDesc);
+                return StringUtil.visible(ownerNameDesc);
             }
             case MethodRefEntry e -> {
                 String nameDesc = e.name().stringValue() + e.type().stringValue();
                 String ownerNameDesc = e.owner().asInternalName() + "." + nameDesc;
-                printString(ownerNameDesc);
-            }
-            case ModuleEntry e -> {
-                printString(e.name());
+                return StringUtil.visible(ownerNameDesc);
             }
-             case NameAndTypeEntry e -> {
-                throw new UnsupportedOperationException("" + e);
-            }
-            case PackageEntry e -> {
-                printString(e.name());
-            }
-       }
+            default -> throw new AssertionError("" + entry);
+        }
     }
     
     private void printDynamic(String name, TypeDescriptor type,
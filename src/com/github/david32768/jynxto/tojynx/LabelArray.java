@@ -0,0 +1,50 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// per label values held in an array indexed by LabelNames.indexOf
+class LabelArray<T> {
+
+    private static final int INITIAL_SIZE = 16;
+
+    private Object[] values;
+    private int count;
+
+    LabelArray(int size) {
+        this.values = new Object[Math.max(size, INITIAL_SIZE)];
+        this.count = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return index < values.length? (T)values[index]: null;
+    }
+
+    T computeIfAbsent(int index, Supplier<T> supplier) {
+        T value = get(index);
+        if (value == null) {
+            if (index >= values.length) {
+                values = Arrays.copyOf(values, Math.max(index + 1, 2 * values.length));
+            }
+            value = supplier.get();
+            values[index] = value;
+            ++count;
+        }
+        return value;
+    }
+
+    T remove(int index) {
+        T value = get(index);
+        if (value != null) {
+            values[index] = null;
+            --count;
+        }
+        return value;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.lang.classfile.attribute.CodeAttribute;
+import java.lang.classfile.Label;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// names labels in order of first use
+// labels bound in the code attribute are indexed by bci so no hashing is needed
+class LabelNames {
+
+    private static final String PREFIX = "@L";
+    private static final int SHARED_NAME_COUNT = 1024;
+    private static final String[] SHARED_NAMES = new String[SHARED_NAME_COUNT];
+
+    static {
+        for (int i = 0; i < SHARED_NAME_COUNT; ++i) {
+            SHARED_NAMES[i] = PREFIX + i;
+        }
+    }
+
+    private final CodeAttribute codeAttribute;
+    private final int unboundBase;
+    private final Map<Label,Integer> unbound;
+
+    private int[] numbers; // label number + 1; zero if not yet named
+    private int nextlab;
+
+    LabelNames(CodeAttribute codeAttribute) {
+        this.codeAttribute = codeAttribute;
+        // a label may be bound to the end of the code
+        this.unboundBase = codeAttribute == null? 0: codeAttribute.codeLength() + 1;
+        this.unbound = new HashMap<>();
+        this.numbers = new int[unboundBase + 1];
+        this.nextlab = 0;
+    }
+
+    int indexOf(Label label) {
+        if (codeAttribute != null) {
+            int bci = codeAttribute.labelToBci(label);
+            if (bci >= 0) {
+                return bci;
+            }
+        }
+        return unbound.computeIfAbsent(label, lab -> unboundBase + unbound.size());
+    }
+
+    String nameOf(Label label) {
+        return nameOfIndex(indexOf(label));
+    }
+
+    String nameOfIndex(int index) {
+        if (index >= numbers.length) {
+            numbers = Arrays.copyOf(numbers, Math.max(index + 1, 2 * numbers.length));
+        }
+        if (numbers[index] == 0) {
+            numbers[index] = ++nextlab;
+        }
+        return nameOf(numbers[index] - 1);
+    }
+
+    // returns null if the label has not been named
+    String nameIfPresent(Label label) {
+        int index = indexOf(label);
+        if (index >= numbers.length || numbers[index] == 0) {
+            return null;
+        }
+        return nameOf(numbers[index] - 1);
+    }
+
+    private static String nameOf(int number) {
+        return number < SHARED_NAME_COUNT? SHARED_NAMES[number]: PREFIX + number;
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+@FunctionalInterface
+public interface LineSink {
+
+    // line includes the terminating newline and is only valid for the duration of the call
+    void line(CharSequence line);
+
+    default void flush() {}
+
+    static LineSink of(Consumer<String> consumer) {
+        return line -> consumer.accept(line.toString());
+    }
+
+    // use java.nio.channels.Channels.newWriter for a WritableByteChannel
+    static LineSink of(Writer writer) {
+        return new WriterSink(writer);
+    }
+
+    static class WriterSink implements LineSink {
+
+        private static final int INITIAL_SIZE = 256;
+
+        private final Writer writer;
+
+        private char[] buffer;
+
+        private WriterSink(Writer writer) {
+            this.writer = writer;
+            this.buffer = new char[INITIAL_SIZE];
+        }
+
+        @Override
+        public void line(CharSequence line) {
+            int length = line.length();
+            if (length > buffer.length) {
+                buffer = new char[Math.max(length, 2 * buffer.length)];
+            }
+            if (line instanceof StringBuilder sb) {
+                sb.getChars(0, length, buffer, 0);
+            } else {
+                for (int i = 0; i < length; ++i) {
+                    buffer[i] = line.charAt(i);
+                }
+            }
+            try {
+                writer.write(buffer, 0, length);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void flush() {
+            try {
+                writer.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.lang.classfile.constantpool.Utf8Entry;
+
+import java.util.Arrays;
+
+// local variable table entries are printed after the code so are held in parallel arrays;
+// start and end are label indices from LabelNames.indexOf and
+// entries starting (ending) at a label are chained from an array indexed by label index
+class LocalVariables {
+
+    static final int NONE = -1;
+
+    private static final int INITIAL_SIZE = 16;
+
+    private int count;
+    private int[] slots;
+    private int[] starts;
+    private int[] ends;
+    private Utf8Entry[] names;
+    private Utf8Entry[] types;
+    private int[] nextStarting;
+    private int[] nextEnding;
+    private int[] firstStarting;
+    private int[] firstEnding;
+
+    LocalVariables(int labelCount) {
+        this.count = 0;
+        this.slots = new int[INITIAL_SIZE];
+        this.starts = new int[INITIAL_SIZE];
+        this.ends = new int[INITIAL_SIZE];
+        this.names = new Utf8Entry[INITIAL_SIZE];
+        this.types = new Utf8Entry[INITIAL_SIZE];
+        this.nextStarting = new int[INITIAL_SIZE];
+        this.nextEnding = new int[INITIAL_SIZE];
+        this.firstStarting = noneArray(Math.max(labelCount, INITIAL_SIZE));
+        this.firstEnding = noneArray(Math.max(labelCount, INITIAL_SIZE));
+    }
+
+    private static int[] noneArray(int size) {
+        int[] array = new int[size];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    private static int[] growNone(int[] array, int index) {
+        int oldsize = array.length;
+        array = Arrays.copyOf(array, Math.max(index + 1, 2 * oldsize));
+        Arrays.fill(array, oldsize, array.length, NONE);
+        return array;
+    }
+
+    void add(int slot, int start, int end, Utf8Entry name, Utf8Entry type) {
+        if (count == slots.length) {
+            int size = 2 * count;
+            slots = Arrays.copyOf(slots, size);
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            names = Arrays.copyOf(names, size);
+            types = Arrays.copyOf(types, size);
+            nextStarting = Arrays.copyOf(nextStarting, size);
+            nextEnding = Arrays.copyOf(nextEnding, size);
+        }
+        if (start >= firstStarting.length) {
+            firstStarting = growNone(firstStarting, start);
+        }
+        if (end >= firstEnding.length) {
+            firstEnding = growNone(firstEnding, end);
+        }
+        slots[count] = slot;
+        starts[count] = start;
+        ends[count] = end;
+        names[count] = name;
+        types[count] = type;
+        nextStarting[count] = firstStarting[start];
+        firstStarting[start] = count;
+        nextEnding[count] = firstEnding[end];
+        firstEnding[end] = count;
+        ++count;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int slot(int lv) {
+        return slots[lv];
+    }
+
+    int start(int lv) {
+        return starts[lv];
+    }
+
+    int end(int lv) {
+        return ends[lv];
+    }
+
+    Utf8Entry name(int lv) {
+        return names[lv];
+    }
+
+    Utf8Entry type(int lv) {
+        return types[lv];
+    }
+
+    // for (int lv = firstStarting(index); lv != NONE; lv = nextStarting(lv))
+    int firstStarting(int labelIndex) {
+        return labelIndex < firstStarting.length? firstStarting[labelIndex]: NONE;
+    }
+
+    int nextStarting(int lv) {
+        return nextStarting[lv];
+    }
+
+    int firstEnding(int labelIndex) {
+        return labelIndex < firstEnding.length? firstEnding[labelIndex]: NONE;
+    }
+
+    int nextEnding(int lv) {
+        return nextEnding[lv];
+    }
+
+}
@@ -12,6 +12,8 @@ import com.github.david32768.jynxfree.jynx.MainOptionService;
 
 public class MainToJynx implements MainOptionService {
 
+    static final String VERSION = "0.25.2";
+
     @Override
     public MainOption main() {
         return MainOption.DISASSEMBLY;
@@ -19,11 +21,36 @@ public class MainToJynx implements MainOptionService {
     
     @Override
     public String version() {
-        return "0.25.2";
+        return VERSION;
     }
 
     @Override
     public boolean call(PrintWriter pw, String fname) {
+        MemberFilter.checkProperties();
+        ClassHierarchyCache.SHARED.load();
+        boolean success = callFile(pw, fname);
+        ClassHierarchyCache.SHARED.save();
+        DisassemblyMetrics.report();
+        return success;
+    }
+    
+    private boolean callFile(PrintWriter pw, String fname) {
+        if (StreamToJynx.STDIN_NAME.equals(fname)) {
+            try {
+                return StreamToJynx.ofSystemIn().run(pw);
+            } catch (IOException ex) {
+                LOG(ex);
+                return false;
+            }
+        }
+        if (BatchToJynx.isBatch(fname)) {
+            try {
+                return BatchToJynx.of(fname).run(pw);
+            } catch (IOException ex) {
+                LOG(ex);
+                return false;
+            }
+        }
         byte[] bytes;
         try {
             bytes = ClassUtil.getClassBytes(fname);
@@ -0,0 +1,78 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.lang.classfile.FieldModel;
+import java.lang.classfile.MethodModel;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+import static com.github.david32768.jynxto.my.Message.M628;
+
+// selects the fields and methods that are printed;
+// -Djynxto.fields=regex and -Djynxto.methods=regex are matched against name followed by descriptor
+// e.g. -Djynxto.methods=main\(.*  or -Djynxto.fields=count.*
+public class MemberFilter {
+
+    private static final String FIELDS_PROPERTY = "jynxto.fields";
+    private static final String METHODS_PROPERTY = "jynxto.methods";
+
+    static final MemberFilter FIELDS = of(FIELDS_PROPERTY);
+    static final MemberFilter METHODS = of(METHODS_PROPERTY);
+    static final MemberFilter ALL = new MemberFilter(null);
+
+    private final Pattern pattern; // null if all are selected
+
+    private MemberFilter(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    private static MemberFilter of(String property) {
+        String regex = System.getProperty(property);
+        if (regex == null || regex.isEmpty()) {
+            return new MemberFilter(null);
+        }
+        try {
+            return new MemberFilter(Pattern.compile(regex));
+        } catch (PatternSyntaxException ex) {
+            // "%s is not a valid pattern and is ignored: %s"
+            LOG(M628, property, ex.getDescription());
+            return new MemberFilter(null);
+        }
+    }
+
+    // properties are read when this class is initialised; called on the main thread before any class
+    // is disassembled so an invalid pattern is reported then and not against the class being printed
+    static void checkProperties() {
+        assert FIELDS != null && METHODS != null;
+    }
+
+    // throws PatternSyntaxException if regex is not valid
+    static MemberFilter ofRegex(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            return ALL;
+        }
+        return new MemberFilter(Pattern.compile(regex));
+    }
+
+    boolean selectsAll() {
+        return pattern == null;
+    }
+
+    // for cache key
+    String regex() {
+        return pattern == null? "": pattern.pattern();
+    }
+
+    boolean selects(FieldModel fm) {
+        return selects(fm.fieldName().stringValue(), fm.fieldType().stringValue());
+    }
+
+    boolean selects(MethodModel mm) {
+        return selects(mm.methodName().stringValue(), mm.methodType().stringValue());
+    }
+
+    private boolean selects(String name, String descriptor) {
+        return pattern == null || pattern.matcher(name + descriptor).matches();
+    }
+
+}
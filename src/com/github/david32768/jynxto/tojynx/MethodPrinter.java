@@ -15,8 +15,6 @@ import java.lang.classfile.attribute.SignatureAttribute;
 import java.lang.classfile.MethodModel;
 import java.lang.classfile.TypeAnnotation;
 
-import static com.github.david32768.jynxfree.jynx.Global.OPTION;
-import static com.github.david32768.jynxfree.jynx.GlobalOption.SKIP_STACK;
 import static com.github.david32768.jynxto.my.Message.M616;
 
 import com.github.david32768.jynxfree.classfile.StackMap;
@@ -32,13 +30,25 @@ public class MethodPrinter {
     
     private final JynxPrinter ptr;
     private CodeAttribute codeAttribute;
+    private AnnotationPrinter annotationPrinter; // created when first needed
 
     MethodPrinter(JynxPrinter ptr) {
         this.ptr = ptr.copy();
     }
 
+    private AnnotationPrinter annotationPrinter() {
+        if (annotationPrinter == null) {
+            annotationPrinter = new AnnotationPrinter(ptr);
+        }
+        return annotationPrinter;
+    }
+
+    // code elements are streamed from the code model
     void process(MethodModel mm) {
-        var accessName = AccessName.ofMethod(mm);        
+        var event = new JynxEvents.MethodPrint();
+        event.begin();
+        long startChars = ptr.charCount();
+        var accessName = AccessName.ofMethod(mm, ptr.context().jvmVersion());        
         ptr.nl()
                 .print(Directive.dir_method, accessName)
                 .setLogContext()
@@ -48,12 +58,27 @@ public class MethodPrinter {
             processAttribute(attribute);
         }
         var cm = mm.code();
-        if (cm.isPresent()) {
+        if (cm.isPresent() && ptr.context().summary()) {
+            CodeSummary.process(ptr, codeAttribute);
+        } else if (cm.isPresent()) {
             StackMap stackmap = StackMap.of(mm);
-            CodePrinter cp = new CodePrinter(ptr, stackmap, !OPTION(SKIP_STACK));
-            cp.process(cm.get(), codeAttribute, SlotKind.ofParameters(mm));
+            CodePrinter cp = new CodePrinter(ptr, stackmap, !ptr.context().skipStack(), codeAttribute);
+            cp.process(cm.get(), SlotKind.ofParameters(mm));
         }
         ptr.decrDepth().print(Directive.end_method).nl();
+        if (event.shouldCommit()) {
+            event.className = mm.parent()
+                    .map(classModel -> classModel.thisClass().asInternalName())
+                    .orElse(null);
+            event.methodName = mm.methodName().stringValue();
+            event.methodDescriptor = mm.methodType().stringValue();
+            if (codeAttribute != null) {
+                event.codeLength = codeAttribute.codeLength();
+                event.handlerCount = codeAttribute.exceptionHandlers().size();
+            }
+            event.outputChars = ptr.charCount() - startChars;
+            event.commit();
+        }
     }
 
     private void processAttribute(Attribute<?> attribute) {
@@ -75,45 +100,45 @@ public class MethodPrinter {
                 ptr.print(Directive.dir_signature, attr.signature()).nl();
             }
             case RuntimeVisibleParameterAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 ap.processParameterAnnotations(true, attr.parameterAnnotations());
             }
             case RuntimeInvisibleParameterAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 ap.processParameterAnnotations(false, attr.parameterAnnotations());
             }
             case RuntimeInvisibleAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeAnnotation(false, annotation);
                 }
             }
             case RuntimeVisibleAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeAnnotation(true, annotation);
                 }
             }
             case RuntimeInvisibleTypeAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeTypeAnnotation(false, (TypeAnnotation)annotation);
                 }
             }
             case RuntimeVisibleTypeAnnotationsAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 for (var annotation : attr.annotations()) {
                     ap.processRuntimeTypeAnnotation(true, (TypeAnnotation)annotation);
                 }
             }
             case AnnotationDefaultAttribute attr -> {
-                AnnotationPrinter ap = new AnnotationPrinter(ptr);
+                AnnotationPrinter ap = annotationPrinter();
                 ap.processDefaultAnnotation(attr);
             }
             case MethodParametersAttribute attr -> {
                 int index = 0;
                 for (var parm : attr.parameters()) {
-                    var accessName = AccessName.ofParameter(parm);
+                    var accessName = AccessName.ofParameter(parm, ptr.context().jvmVersion());
                     ptr.print(Directive.dir_parameter, index, accessName).nl();
                     ++index;
                 }
@@ -0,0 +1,86 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.lang.classfile.AccessFlags;
+import java.lang.classfile.ClassElement;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassFileVersion;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.Interfaces;
+import java.lang.classfile.MethodModel;
+import java.lang.classfile.Superclass;
+import java.lang.classfile.constantpool.ConstantPoolBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.github.david32768.jynxfree.transform.Transforms;
+
+// frames are synthesised for each method that needs them in a probe class containing only that method
+// so methods can be done in parallel and a method that fails keeps its original code;
+// probes have their own small constant pool so only the entries used by the method are copied;
+// parallel streams run in the caller's fork-join pool (the batch pool) or the common pool
+class MethodStackMaps {
+
+    record Result(ClassModel cm, List<String> failures) {}
+
+    private record Synthesis(MethodModel mm, String failure) {}
+
+    private MethodStackMaps() {}
+
+    static Result addStackMaps(ClassFile classfile, ClassModel cm, boolean parallel) {
+        List<MethodModel> methods = cm.methods();
+        IntStream indices = IntStream.range(0, methods.size());
+        if (parallel) {
+            indices = indices.parallel();
+        }
+        Synthesis[] results = indices
+                .mapToObj(i -> synthesise(classfile, cm, methods.get(i)))
+                .toArray(Synthesis[]::new);
+        List<String> failures = new ArrayList<>();
+        boolean changed = false;
+        for (int i = 0; i < results.length; ++i) {
+            if (results[i].failure() != null) {
+                failures.add(results[i].failure());
+            }
+            changed |= results[i].mm() != methods.get(i);
+        }
+        if (!changed) {
+            return new Result(cm, failures);
+        }
+        byte[] bytes = classfile.build(cm.thisClass(), ConstantPoolBuilder.of(cm), cb -> {
+            int index = 0;
+            for (ClassElement element : cm) {
+                if (element instanceof MethodModel) {
+                    cb.with(results[index++].mm());
+                } else {
+                    cb.with(element);
+                }
+            }
+        });
+        return new Result(classfile.parse(bytes), failures);
+    }
+
+    private static Synthesis synthesise(ClassFile classfile, ClassModel cm, MethodModel mm) {
+        if (!ToJynx.needsStackMap(mm)) {
+            return new Synthesis(mm, null);
+        }
+        try {
+            byte[] probe = classfile.build(cm.thisClass().asSymbol(), cb -> {
+                for (ClassElement element : cm) {
+                    switch (element) {
+                        case ClassFileVersion _, AccessFlags _, Superclass _, Interfaces _ -> cb.with(element);
+                        default -> {}
+                    }
+                }
+                cb.with(mm);
+            });
+            byte[] smbytes = Transforms.addStackMap(classfile, classfile.parse(probe));
+            MethodModel result = classfile.parse(smbytes).methods().getFirst();
+            return new Synthesis(result, null);
+        } catch (UnsupportedOperationException | IllegalArgumentException ex) {
+            String method = mm.methodName().stringValue() + mm.methodType().stringValue();
+            return new Synthesis(mm, method + " " + ex.getMessage());
+        }
+    }
+
+}
@@ -48,7 +48,7 @@ public class ModulePrinter extends ClassHeaderPrinter {
         var module = (ModuleAttribute)moduleAttributes.get("Module");
         assert Objects.nonNull(module);
         var version = module.moduleVersion();
-        var accessName = AccessName.ofModule(module);
+        var accessName = AccessName.ofModule(module, ptr.context().jvmVersion());
         ptr.print(dir_module, accessName, version).nl()
                 .incrDepth();
         for( var attribute : moduleAttributes.values()) {
@@ -63,14 +63,14 @@ public class ModulePrinter extends ClassHeaderPrinter {
 
                 var requires = attr.requires();
                 for (var required: requires) {
-                    var accessName = AccessName.ofRequire(required);
+                    var accessName = AccessName.ofRequire(required, ptr.context().jvmVersion());
                     ptr.print(Directive.dir_requires, accessName, required.requiresVersion()).nl();
                 }
 
                 var exports = attr.exports();
                 if (!exports.isEmpty()) {
                     for (var exported : exports) {
-                        var accessName = AccessName.ofExport(exported);
+                        var accessName = AccessName.ofExport(exported, ptr.context().jvmVersion());
                         ptr.print(Directive.dir_exports, accessName);
                         var to = exported.exportsTo();
                         if (!to.isEmpty()) {
@@ -87,7 +87,7 @@ public class ModulePrinter extends ClassHeaderPrinter {
                 var opens = attr.opens();
                 if (!opens.isEmpty()) {
                     for (var opened : opens) {
-                        var accessName = AccessName.ofOpen(opened);
+                        var accessName = AccessName.ofOpen(opened, ptr.context().jvmVersion());
                         ptr.print(Directive.dir_opens, accessName);
                         var to = opened.opensTo();
                         if (!to.isEmpty()) {
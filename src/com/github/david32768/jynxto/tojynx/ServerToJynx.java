@@ -0,0 +1,173 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executors;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+
+import com.github.david32768.jynxfree.jynx.GlobalOption;
+
+// request = 4 byte big-endian length followed by class bytes
+// response = 4 byte big-endian length followed by UTF-8 .jx text; length is -1 if disassembly failed
+// several requests may be sent on one connection;
+// options = 4 byte -2 followed by 4 byte length and UTF-8 space separated options (e.g. --SKIP_DEBUG),
+// with no response, and applies to later requests on the connection (no options restores the defaults);
+// a connection is closed if a class or options length is more than the maximum;
+// requests are disassembled one at a time as printing uses Global state
+public class ServerToJynx {
+
+    static final int FAILURE_LENGTH = -1;
+    static final int OPTIONS_LENGTH = -2;
+    static final int MAX_CLASS_LENGTH = 1 << 24;
+    static final int MAX_OPTIONS_LENGTH = 1 << 16;
+
+    private static final String OPTION_PREFIX = "--";
+
+    private final Path socketPath;
+    private final MainToJynx service;
+
+    private ServerToJynx(Path socketPath) {
+        this.socketPath = socketPath;
+        this.service = new MainToJynx();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: ServerToJynx socket-path");
+            System.err.println("  options are sent by the client for each connection;");
+            System.err.println("  requests are disassembled one at a time");
+            System.exit(1);
+        }
+        new ServerToJynx(Path.of(args[0])).run();
+    }
+
+    public void run() throws IOException {
+        MemberFilter.checkProperties();
+        // only a stale socket (e.g. from a server that was killed) is replaced
+        if (isSocket(socketPath)) {
+            Files.delete(socketPath);
+        } else if (Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException(socketPath + " exists and is not a socket");
+        }
+        var address = UnixDomainSocketAddress.of(socketPath);
+        try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.bind(address);
+            while (true) {
+                SocketChannel channel = server.accept();
+                executor.submit(() -> serve(channel));
+            }
+        } finally {
+            if (isSocket(socketPath)) {
+                Files.delete(socketPath);
+            }
+        }
+    }
+
+    // a socket is not a regular file, directory or symbolic link
+    private static boolean isSocket(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        var attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        return attrs.isOther();
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel;
+                var dis = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                var dos = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            ToJynxContext context = null; // use defaults
+            while (true) {
+                int length;
+                try {
+                    length = dis.readInt();
+                } catch (EOFException ex) {
+                    break;
+                }
+                if (length == OPTIONS_LENGTH) {
+                    context = contextOf(readOptions(dis));
+                    continue;
+                }
+                if (length < 0 || length > MAX_CLASS_LENGTH) {
+                    throw new IOException("invalid class length " + length);
+                }
+                byte[] bytes = ClassBytes.read(dis, length);
+                String jx = disassemble(bytes, context);
+                if (jx == null) {
+                    dos.writeInt(FAILURE_LENGTH);
+                } else {
+                    byte[] out = jx.getBytes(StandardCharsets.UTF_8);
+                    dos.writeInt(out.length);
+                    dos.write(out);
+                }
+                dos.flush();
+            }
+        } catch (IOException ex) {
+            LOG(ex);
+        }
+    }
+
+    private static String readOptions(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        if (length < 0 || length > MAX_OPTIONS_LENGTH) {
+            throw new IOException("invalid options length " + length);
+        }
+        return new String(ClassBytes.read(dis, length), StandardCharsets.UTF_8);
+    }
+
+    // returns null if there are no options
+    private static ToJynxContext contextOf(String options) throws IOException {
+        if (options.isBlank()) {
+            return null;
+        }
+        var builder = ToJynxContext.builderOfProperties();
+        for (String option : options.trim().split(" +")) {
+            builder.option(optionOf(option));
+        }
+        return builder.build();
+    }
+
+    private static GlobalOption optionOf(String option) throws IOException {
+        if (option.startsWith(OPTION_PREFIX)) {
+            String name = option.substring(OPTION_PREFIX.length()).toUpperCase();
+            for (var opt : GlobalOption.values()) {
+                if (opt.isExternal() && opt.name().equals(name)) {
+                    return opt;
+                }
+            }
+        }
+        throw new IOException("unknown option " + option);
+    }
+
+    // without options the output may be cached
+    private String disassemble(byte[] bytes, ToJynxContext context) {
+        try {
+            if (context == null) {
+                return service.callToString(bytes);
+            }
+            StringBuilder sb = new StringBuilder();
+            boolean success = ToJynx.toJynx(bytes, sb::append, context);
+            return success? sb.toString(): null;
+        } catch (RuntimeException ex) {
+            LOG(ex);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.david32768.jynxto.my.Message.M608;
+
+import com.github.david32768.jynxfree.jynx.StringUtil;
+
+// renders the "bci -> %d stack -> %s" comment;
+// the message is formatted once per distinct stack and split at the bci so only the bci is converted per line
+class StackComments {
+
+    private static final int BCI_MARK = Integer.MIN_VALUE;
+    private static final String BCI_MARK_STRING = Integer.toString(BCI_MARK);
+
+    private record Template(String head, String tail) {}
+
+    private final Map<String, Template> templates;
+
+    private String lastStack;
+    private Template lastTemplate;
+
+    StackComments() {
+        this.templates = new HashMap<>();
+    }
+
+    String render(int bci, String stack) {
+        if (!stack.equals(lastStack)) {
+            lastStack = stack;
+            lastTemplate = templates.computeIfAbsent(stack, StackComments::templateOf);
+        }
+        return lastTemplate.head() + bci + lastTemplate.tail();
+    }
+
+    private static Template templateOf(String stack) {
+        String comment = StringUtil.printable(M608.format(BCI_MARK, stack));
+        int index = comment.indexOf(BCI_MARK_STRING);
+        assert index >= 0;
+        return new Template(comment.substring(0, index), comment.substring(index + BCI_MARK_STRING.length()));
+    }
+
+}
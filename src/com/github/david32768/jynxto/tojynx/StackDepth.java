@@ -0,0 +1,140 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.lang.classfile.instruction.*;
+
+import java.lang.classfile.Instruction;
+import java.lang.classfile.Label;
+import java.lang.classfile.Opcode;
+
+import com.github.david32768.jynxfree.classfile.StackMap;
+
+// cheap max stack calculation used instead of StackChecker when the stack is not printed
+// and subroutines are not supported;
+// only the depth is tracked and the depth at a label with a frame is taken from the stack map
+class StackDepth {
+
+    private final StackMap stackMap;
+
+    private int depth;
+    private int maxStack;
+
+    StackDepth(StackMap stackMap) {
+        this.stackMap = stackMap;
+        this.depth = 0;
+        this.maxStack = 0;
+    }
+
+    int maxStack() {
+        return maxStack;
+    }
+
+    void labelBinding(Label label) {
+        if (stackMap.localsFrameFor(label) != null) {
+            int frameDepth = 0;
+            for (var info : stackMap.stackFrameFor(label)) {
+                frameDepth += CodePrinter.slotSize(info);
+            }
+            depth = frameDepth;
+            maxStack = Math.max(maxStack, depth);
+        }
+    }
+
+    void instruction(Instruction inst) {
+        depth += delta(inst);
+        maxStack = Math.max(maxStack, depth);
+        if (isUnconditional(inst)) {
+            depth = 0; // next instruction must have a frame
+        }
+    }
+
+    private static boolean isUnconditional(Instruction inst) {
+        return switch (inst) {
+            case ReturnInstruction _,
+                    ThrowInstruction _,
+                    TableSwitchInstruction _,
+                    LookupSwitchInstruction _ -> true;
+            case BranchInstruction branch -> switch (branch.opcode()) {
+                case GOTO, GOTO_W -> true;
+                default -> false;
+            };
+            default -> false;
+        };
+    }
+
+    private static int delta(Instruction inst) {
+        return switch (inst) {
+            case LoadInstruction load -> load.typeKind().slotSize();
+            case StoreInstruction store -> -store.typeKind().slotSize();
+            case ConstantInstruction constant -> constant.typeKind().slotSize();
+            case ArrayLoadInstruction load -> load.typeKind().slotSize() - 2;
+            case ArrayStoreInstruction store -> -store.typeKind().slotSize() - 2;
+            case ConvertInstruction convert -> convert.toType().slotSize() - convert.fromType().slotSize();
+            case OperatorInstruction operator -> switch (operator.opcode()) {
+                case INEG, LNEG, FNEG, DNEG, ARRAYLENGTH -> 0;
+                case ISHL, ISHR, IUSHR, LSHL, LSHR, LUSHR, FCMPL, FCMPG -> -1;
+                case LCMP, DCMPL, DCMPG -> -3;
+                default -> -operator.typeKind().slotSize();
+            };
+            case StackInstruction stack -> switch (stack.opcode()) {
+                case POP -> -1;
+                case POP2 -> -2;
+                case DUP, DUP_X1, DUP_X2 -> 1;
+                case DUP2, DUP2_X1, DUP2_X2 -> 2;
+                default -> 0; // SWAP
+            };
+            case FieldInstruction field -> {
+                int size = slotSize(field.type().stringValue().charAt(0));
+                yield switch (field.opcode()) {
+                    case GETSTATIC -> size;
+                    case PUTSTATIC -> -size;
+                    case GETFIELD -> size - 1;
+                    default -> -size - 1; // PUTFIELD
+                };
+            }
+            case InvokeInstruction invoke -> {
+                int receiver = invoke.opcode() == Opcode.INVOKESTATIC? 0: 1;
+                yield invokeDelta(invoke.type().stringValue()) - receiver;
+            }
+            case InvokeDynamicInstruction indy -> invokeDelta(indy.type().stringValue());
+            case NewObjectInstruction _ -> 1;
+            case NewMultiArrayInstruction multi -> 1 - multi.dimensions();
+            case BranchInstruction branch -> switch (branch.opcode()) {
+                case GOTO, GOTO_W -> 0;
+                case IF_ACMPEQ, IF_ACMPNE,
+                        IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPLE -> -2;
+                default -> -1;
+            };
+            case ReturnInstruction ret -> -ret.typeKind().slotSize();
+            case ThrowInstruction _,
+                    MonitorInstruction _,
+                    TableSwitchInstruction _,
+                    LookupSwitchInstruction _ -> -1;
+            // NewPrimitiveArray, NewReferenceArray, TypeCheck, Increment, Nop
+            default -> 0;
+        };
+    }
+
+    // return slots less argument slots
+    private static int invokeDelta(String descriptor) {
+        int args = 0;
+        int i = 1; // skip '('
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            args += slotSize(c);
+            while (descriptor.charAt(i) == '[') {
+                ++i;
+            }
+            if (descriptor.charAt(i) == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            ++i;
+        }
+        char ret = descriptor.charAt(i + 1);
+        return (ret == 'V'? 0: slotSize(ret)) - args;
+    }
+
+    private static int slotSize(char descriptorStart) {
+        return descriptorStart == 'J' || descriptorStart == 'D'? 2: 1;
+    }
+
+}
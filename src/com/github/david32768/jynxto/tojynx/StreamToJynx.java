@@ -0,0 +1,116 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.jar.JarInputStream;
+
+import static com.github.david32768.jynxfree.jynx.Global.LOG;
+import static com.github.david32768.jynxto.my.Message.M622;
+import static com.github.david32768.jynxto.my.Message.M623;
+
+// reads a jar stream or a sequence of (4 byte big-endian length, class bytes)
+// and writes a delimited .jx document for each class as soon as it is read
+public class StreamToJynx {
+
+    public static final String STDIN_NAME = "-";
+
+    private static final int ZIP_MAGIC = 0x504b0304; // "PK\3\4"
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String START_DELIMITER = "; >>> ";
+    private static final String END_DELIMITER = "; <<< ";
+    private static final String SUCCESS = " success";
+    private static final String FAILURE = " failure";
+
+    private final InputStream input;
+
+    private int successCount;
+    private int failCount;
+
+    private StreamToJynx(InputStream input) {
+        this.input = input;
+        this.successCount = 0;
+        this.failCount = 0;
+    }
+
+    public static StreamToJynx ofSystemIn() {
+        return new StreamToJynx(System.in);
+    }
+
+    public boolean run(PrintWriter pw) throws IOException {
+        var bis = new BufferedInputStream(input);
+        bis.mark(Integer.BYTES);
+        var dis = new DataInputStream(bis);
+        int magic;
+        try {
+            magic = dis.readInt();
+        } catch (EOFException ex) {
+            magic = 0;
+        }
+        bis.reset();
+        if (magic == ZIP_MAGIC) {
+            processJar(bis, pw);
+        } else {
+            processLengthPrefixed(dis, pw);
+        }
+        // "%d classes written to %s; %d failed"
+        LOG(M622, successCount, STDIN_NAME, failCount);
+        return failCount == 0;
+    }
+
+    private void processJar(InputStream is, PrintWriter pw) throws IOException {
+        try (var jis = new JarInputStream(is)) {
+            for (var entry = jis.getNextJarEntry(); entry != null; entry = jis.getNextJarEntry()) {
+                String name = entry.getName();
+                if (entry.isDirectory() || !name.endsWith(CLASS_SUFFIX)) {
+                    continue;
+                }
+                byte[] bytes = ClassBytes.read(jis, entry.getSize());
+                processClass(name, bytes, pw);
+            }
+        }
+    }
+
+    private void processLengthPrefixed(DataInputStream dis, PrintWriter pw) throws IOException {
+        int index = 0;
+        while (true) {
+            int length;
+            try {
+                length = dis.readInt();
+            } catch (EOFException ex) {
+                break;
+            }
+            if (length < 0) {
+                throw new IOException("negative class length " + length);
+            }
+            byte[] bytes = ClassBytes.read(dis, length);
+            processClass("#" + index, bytes, pw);
+            ++index;
+        }
+    }
+
+    private void processClass(String name, byte[] bytes, PrintWriter pw) {
+        // '\n' as used by JynxPrinter not the platform line separator
+        pw.print(START_DELIMITER + name + '\n');
+        boolean success;
+        try {
+            success = ToJynx.toJynx(bytes, pw);
+        } catch (RuntimeException ex) {
+            LOG(ex);
+            success = false;
+        }
+        if (success) {
+            ++successCount;
+        } else {
+            // "disassembly of %s failed"
+            LOG(M623, name);
+            ++failCount;
+        }
+        pw.print(END_DELIMITER + name + (success? SUCCESS: FAILURE) + '\n');
+        pw.flush();
+    }
+
+}
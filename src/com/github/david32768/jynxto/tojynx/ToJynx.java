@@ -2,37 +2,149 @@ package com.github.david32768.jynxto.tojynx;
 
 import java.io.PrintWriter;
 import java.lang.classfile.ClassFile;
+import java.lang.classfile.Attributes;
 import java.lang.classfile.ClassModel;
+import java.lang.classfile.MethodModel;
+import java.lang.classfile.instruction.BranchInstruction;
+import java.lang.classfile.instruction.DiscontinuedInstruction;
+import java.lang.classfile.instruction.ExceptionCatch;
+import java.lang.classfile.instruction.LookupSwitchInstruction;
+import java.lang.classfile.instruction.TableSwitchInstruction;
+import java.util.List;
+import java.util.function.Consumer;
 
-import static com.github.david32768.jynxfree.jynx.Global.OPTION;
 import static com.github.david32768.jynxto.my.Message.M621;
+import static com.github.david32768.jynxto.my.Message.M623;
+import static com.github.david32768.jynxto.my.Message.M625;
 
 import com.github.david32768.jynxfree.jvm.JvmVersion;
 import com.github.david32768.jynxfree.jynx.Global;
-import com.github.david32768.jynxfree.jynx.GlobalOption;
 import com.github.david32768.jynxfree.jynx.MainOption;
 import com.github.david32768.jynxfree.transform.ClassModels;
-import com.github.david32768.jynxfree.transform.Transforms;
+
+import com.github.david32768.jynxto.tojynx.DisassemblyMetrics.Phase;
 
 public class ToJynx {
 
+    private static final String PARALLELISM_PROPERTY = "jynxto.parallelism";
+
+    // hierarchy is the classes resolved for synthesised frames as in ClassHierarchyCache.Resolver.used()
+    record ParsedClass(ClassModel cm, boolean hasStackMap, List<String> stackMapFailures,
+            List<String> hierarchy, DisassemblyMetrics metrics, ToJynxContext context) {}
+    
     public static boolean toJynx(byte[] bytes, PrintWriter pw) {
-        ClassFile classfile = classFile();
+        var cache = JynxCache.ofProperty();
+        if (cache.isPresent()) {
+            return cache.get().toJynx(bytes, pw);
+        }
+        return toJynx(parse(bytes), pw);
+    }
+
+    // options are from the context not Global; printing is still serialised with all other disassembly
+    public static boolean toJynx(byte[] bytes, LineSink sink, ToJynxContext context) {
+        return toJynx(parse(bytes, context), sink, context.diagnostics());
+    }
+
+    static ParsedClass parse(byte[] bytes) {
+        return parse(bytes, ToJynxContext.ofGlobal());
+    }
+
+    static ParsedClass parse(byte[] bytes, ToJynxContext context) {
+        return parse(bytes, context, ClassHierarchyCache.Inputs.NONE);
+    }
+
+    // does not use Global state so may be called concurrently;
+    // inputs are the other classes of the input (if any) for the class hierarchy
+    static ParsedClass parse(byte[] bytes, ToJynxContext context, ClassHierarchyCache.Inputs inputs) {
+        var metrics = DisassemblyMetrics.of(bytes);
+        metrics.start(Phase.PARSE);
+        ClassFile classfile = classFile(context);
         ClassModel cm = classfile.parse(bytes);
         boolean hasStackMap = ClassModels.hasStackMap(cm);        
-        if (OPTION(GlobalOption.UPGRADE_TO_V7)) {
+        metrics.stop(Phase.PARSE);
+        List<String> failures = List.of();
+        List<String> hierarchy = List.of();
+        if (!context.upgradeToV7() && !hasStackMap && !context.skipFrames() && !context.summary()) {
+            metrics.start(Phase.STACK_MAP);
+            var event = new JynxEvents.StackMapSynthesis();
+            event.begin();
+            if (event.isEnabled()) {
+                setCodeTotals(event, cm);
+            }
+            try {
+                // member filters only apply when printing so the class version is the same for all filters
+                if (!needsStackMap(cm)) {
+                    // generated stack map would be empty so no need to transform and reparse
+                    hasStackMap = true;
+                } else {
+                    // only the methods that fail are left without frames;
+                    // parallelism only affects scheduling not output
+                    var resolver = ClassHierarchyCache.SHARED.resolver(cm, inputs);
+                    var option = ClassFile.ClassHierarchyResolverOption.of(resolver);
+                    var result = MethodStackMaps.addStackMaps(classfile.withOptions(option), cm,
+                            context.parallelism() > 1);
+                    cm = result.cm();
+                    failures = result.failures();
+                    hierarchy = resolver.used();
+                    hasStackMap = failures.isEmpty();
+                }
+            } catch (UnsupportedOperationException | IllegalArgumentException ex) { 
+                failures = List.of(String.valueOf(ex.getMessage()));
+            } finally {
+                metrics.stop(Phase.STACK_MAP);
+                event.failure = failures.isEmpty()? null: String.join("; ", failures);
+                event.commit();
+            }
+        }
+        return new ParsedClass(cm, hasStackMap, failures, hierarchy, metrics, context);
+    }
+    
+    private static void setCodeTotals(JynxEvents.StackMapSynthesis event, ClassModel cm) {
+        event.className = cm.thisClass().asInternalName();
+        event.methodCount = cm.methods().size();
+        for (var mm : cm.methods()) {
+            var code = mm.findAttribute(Attributes.code());
+            if (code.isPresent()) {
+                event.codeLength += code.get().codeLength();
+                event.handlerCount += code.get().exceptionHandlers().size();
+            }
+        }
+    }
+    
+    static boolean toJynx(ParsedClass parsed, PrintWriter pw) {
+        return toJynx(parsed, LineSink.of(pw), JynxDiagnostic.IGNORE);
+    }
+    
+    // Global is process wide so printing is serialised
+    static synchronized boolean toJynx(ParsedClass parsed, LineSink sink, Consumer<JynxDiagnostic> diagnostics) {
+        var metrics = parsed.metrics();
+        metrics.makeCurrent(parsed.cm().thisClass().asInternalName());
+        try {
+            return toJynx(parsed, metrics, sink, diagnostics);
+        } finally {
+            metrics.complete();
+        }
+    }
+    
+    private static boolean toJynx(ParsedClass parsed, DisassemblyMetrics metrics,
+            LineSink sink, Consumer<JynxDiagnostic> diagnostics) {
+        var event = new JynxEvents.ClassDisassembly();
+        event.begin();
+        ClassModel cm = parsed.cm();
+        boolean hasStackMap = parsed.hasStackMap();
+        if (parsed.context().upgradeToV7()) {
+            metrics.start(Phase.STACK_MAP);
             var upgrade = MainOption.UPGRADE.mainOptionService();
             byte[] smbytes = upgrade.callToBytes(cm);
-            cm =  classfile.parse(smbytes);
+            cm =  classFile(parsed.context()).parse(smbytes);
             hasStackMap = true;
-        } else if (!hasStackMap && !Global.OPTION(GlobalOption.SKIP_FRAMES)) {
-            try {
-                byte[] smbytes= Transforms.addStackMap(classfile, cm);
-                cm =  classfile.parse(smbytes);
-                hasStackMap = true;
-            } catch (UnsupportedOperationException | IllegalArgumentException ex) { 
+            metrics.stop(Phase.STACK_MAP);
+        } else {
+            for (String failure : parsed.stackMapFailures()) {
                 // "%s not actioned as exception occured: %s"
-                Global.LOG(M621, ClassFile.StackMapsOption.GENERATE_STACK_MAPS, ex.getMessage());
+                Global.LOG(M621, ClassFile.StackMapsOption.GENERATE_STACK_MAPS, failure);
+                diagnostics.accept(JynxDiagnostic.of(M621, 0,
+                        ClassFile.StackMapsOption.GENERATE_STACK_MAPS, failure));
             }
         }
 
@@ -40,14 +152,64 @@ public class ToJynx {
         if (version == JvmVersion.V1_6JSR && hasStackMap) {
             version = JvmVersion.V1_6;
         }
-        toJynx(pw, cm, version);
+        var context = parsed.context()
+                .withJvmVersion(version)
+                .withDiagnostics(diagnostics);
+        long chars = toJynx(sink, cm, context);
         String classname = cm.thisClass().asInternalName();
-        return Global.END_MESSAGES(classname);
+        boolean success = Global.END_MESSAGES(classname);
+        if (!success) {
+            // "disassembly of %s failed"
+            diagnostics.accept(JynxDiagnostic.of(M623, 0, classname));
+        }
+        if (event.shouldCommit()) {
+            event.className = classname;
+            event.methodCount = cm.methods().size();
+            event.outputChars = chars;
+            event.success = success;
+            event.commit();
+        }
+        return success;
+    }
+
+    // a frame is only required at a branch target or exception handler
+    private static boolean needsStackMap(ClassModel cm) {
+        for (var mm : cm.methods()) {
+            if (needsStackMap(mm)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private static ClassFile classFile() {
+    static boolean needsStackMap(MethodModel mm) {
+        var code = mm.code();
+        if (code.isEmpty()) {
+            return false;
+        }
+        for (var element : code.get()) {
+            switch (element) {
+                case BranchInstruction _,
+                        TableSwitchInstruction _,
+                        LookupSwitchInstruction _,
+                        DiscontinuedInstruction _,
+                        ExceptionCatch _ -> {
+                    return true;
+                }
+                default -> {}
+            }
+        }
+        return false;
+    }
+    
+    static int parallelism() {
+        int parallelism = Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+        return Math.max(1, parallelism);
+    }
+    
+    private static ClassFile classFile(ToJynxContext context) {
         ClassFile classfile;
-        if (Global.OPTION(GlobalOption.SKIP_DEBUG)) {
+        if (context.skipDebug()) {
             classfile = ClassFile.of(
                     ClassFile.DebugElementsOption.DROP_DEBUG,
                     ClassFile.LineNumbersOption.DROP_LINE_NUMBERS
@@ -64,18 +226,29 @@ public class ToJynx {
         return JvmVersion.from(major, minor);
     }
     
-    public static void toJynx(ClassModel cm, JvmVersion version) {
+    public static synchronized void toJynx(ClassModel cm, JvmVersion version) {
         try (PrintWriter pw = new PrintWriter(System.out)) {
-            toJynx(pw, cm, version);
+            toJynx(LineSink.of(pw), cm, ToJynxContext.of(version));
         }
     }
 
-    private static void toJynx(PrintWriter pw, ClassModel cm, JvmVersion version) {
-        JynxPrinter ptr = new JynxPrinter(pw::print);
-        Global.setJvmVersion(version);
-        ClassPrinter cp = new ClassPrinter(ptr, version);
+    // returns number of characters printed
+    private static long toJynx(LineSink sink, ClassModel cm, ToJynxContext context) {
+        var metrics = DisassemblyMetrics.current();
+        // Global version is still used by JynxFree
+        Global.setJvmVersion(context.jvmVersion());
+        JynxPrinter ptr = JynxPrinter.of(sink, context);
+        ClassPrinter cp = new ClassPrinter(ptr);
         cp.process(cm);
-        pw.flush();
+        metrics.start(Phase.FLUSH);
+        sink.flush();
+        metrics.stop(Phase.FLUSH);
+        if (context.debug()) {
+            // "constant pool render cache: %d hits, %d misses"
+            Global.LOG(M625, ptr.poolCacheHits(), ptr.poolCacheMisses());
+        }
+        metrics.output(ptr.charCount());
+        return ptr.charCount();
     }
 
 }
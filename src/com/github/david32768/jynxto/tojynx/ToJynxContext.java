@@ -0,0 +1,157 @@
+package com.github.david32768.jynxto.tojynx;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static com.github.david32768.jynxfree.jynx.Global.JVM_VERSION;
+import static com.github.david32768.jynxfree.jynx.Global.OPTIONS;
+
+import com.github.david32768.jynxfree.jvm.JvmVersion;
+import com.github.david32768.jynxfree.jynx.GlobalOption;
+import com.github.david32768.jynxfree.jynx.MainOption;
+
+// immutable settings for parsing and printing a class; either read from Global and system properties once
+// or built with explicit options, and carried by JynxPrinter so printers do not read Global state;
+// jvmVersion is null until set from the class being printed
+public record ToJynxContext(JvmVersion jvmVersion,
+        List<GlobalOption> assemblyOptions,
+        boolean skipAnnotations,
+        boolean skipStack,
+        boolean skipFrames,
+        boolean skipDebug,
+        boolean upgradeToV7,
+        boolean debug,
+        boolean summary,
+        MemberFilter fields,
+        MemberFilter methods,
+        int parallelism,
+        Consumer<JynxDiagnostic> diagnostics) {
+
+    public ToJynxContext {
+        assemblyOptions = List.copyOf(assemblyOptions);
+        Objects.requireNonNull(fields);
+        Objects.requireNonNull(methods);
+        Objects.requireNonNull(diagnostics);
+        parallelism = Math.max(1, parallelism);
+    }
+
+    static ToJynxContext of(JvmVersion jvmVersion) {
+        return of(jvmVersion, OPTIONS(), CodeSummary.ENABLED, MemberFilter.FIELDS, MemberFilter.METHODS,
+                ToJynx.parallelism(), JynxDiagnostic.IGNORE);
+    }
+
+    static ToJynxContext ofGlobal() {
+        return of(JVM_VERSION());
+    }
+
+    private static ToJynxContext of(JvmVersion jvmVersion, Collection<GlobalOption> options, boolean summary,
+            MemberFilter fields, MemberFilter methods, int parallelism, Consumer<JynxDiagnostic> diagnostics) {
+        // options to be printed on .version line
+        var assemblyOptions = options.stream()
+                .filter(GlobalOption::isExternal)
+                .filter(opt -> MainOption.ASSEMBLY.usesOption(opt))
+                .filter(opt -> opt != GlobalOption.SYSIN)
+                .toList();
+        return new ToJynxContext(jvmVersion,
+                assemblyOptions,
+                options.contains(GlobalOption.SKIP_ANNOTATIONS),
+                options.contains(GlobalOption.SKIP_STACK),
+                options.contains(GlobalOption.SKIP_FRAMES),
+                options.contains(GlobalOption.SKIP_DEBUG),
+                options.contains(GlobalOption.UPGRADE_TO_V7),
+                options.contains(GlobalOption.DEBUG),
+                summary,
+                fields,
+                methods,
+                parallelism,
+                diagnostics);
+    }
+
+    ToJynxContext withJvmVersion(JvmVersion version) {
+        return new ToJynxContext(version, assemblyOptions, skipAnnotations, skipStack, skipFrames,
+                skipDebug, upgradeToV7, debug, summary, fields, methods, parallelism, diagnostics);
+    }
+
+    ToJynxContext withDiagnostics(Consumer<JynxDiagnostic> consumer) {
+        return new ToJynxContext(jvmVersion, assemblyOptions, skipAnnotations, skipStack, skipFrames,
+                skipDebug, upgradeToV7, debug, summary, fields, methods, parallelism, consumer);
+    }
+
+    // starts with no options, all members selected and parallelism of one;
+    // Global and system properties are not read
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // as builder() but with summary, member filters and parallelism from system properties
+    static Builder builderOfProperties() {
+        return builder()
+                .summary(CodeSummary.ENABLED)
+                .filters(MemberFilter.FIELDS, MemberFilter.METHODS)
+                .parallelism(ToJynx.parallelism());
+    }
+
+    public static class Builder {
+
+        private final EnumSet<GlobalOption> options;
+        private boolean summary;
+        private MemberFilter fields;
+        private MemberFilter methods;
+        private int parallelism;
+        private Consumer<JynxDiagnostic> diagnostics;
+
+        private Builder() {
+            this.options = EnumSet.noneOf(GlobalOption.class);
+            this.summary = false;
+            this.fields = MemberFilter.ALL;
+            this.methods = MemberFilter.ALL;
+            this.parallelism = 1;
+            this.diagnostics = JynxDiagnostic.IGNORE;
+        }
+
+        public Builder option(GlobalOption option) {
+            options.add(option);
+            return this;
+        }
+
+        public Builder summary(boolean summary) {
+            this.summary = summary;
+            return this;
+        }
+
+        // throws java.util.regex.PatternSyntaxException if regex is not valid
+        public Builder fields(String regex) {
+            this.fields = MemberFilter.ofRegex(regex);
+            return this;
+        }
+
+        public Builder methods(String regex) {
+            this.methods = MemberFilter.ofRegex(regex);
+            return this;
+        }
+
+        Builder filters(MemberFilter fields, MemberFilter methods) {
+            this.fields = fields;
+            this.methods = methods;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder diagnostics(Consumer<JynxDiagnostic> diagnostics) {
+            this.diagnostics = Objects.requireNonNull(diagnostics);
+            return this;
+        }
+
+        public ToJynxContext build() {
+            return of(null, options, summary, fields, methods, parallelism, diagnostics);
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 module com.github.david32768.JynxTo {
     requires com.github.david32768.JynxFree;
+    requires jdk.jfr;
+    requires jdk.management;
     exports com.github.david32768.jynxto.tojynx;
     provides com.github.david32768.jynxfree.jynx.MainOptionService 
             with com.github.david32768.jynxto.tojynx.MainToJynx;